@@ -2,12 +2,10 @@ package com.Lostify.Lostify.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 @ConfigurationProperties(prefix = "file.upload")
-public class FileUploadConfig implements WebMvcConfigurer {
+public class FileUploadConfig {
 
     private String uploadDir = "uploads/";
     private long maxFileSize = 5242880; // 5MB
@@ -36,10 +34,4 @@ public class FileUploadConfig implements WebMvcConfigurer {
     public void setMaxRequestSize(long maxRequestSize) {
         this.maxRequestSize = maxRequestSize;
     }
-
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + System.getProperty("user.dir") + "/" + uploadDir);
-    }
-}
\ No newline at end of file
+}
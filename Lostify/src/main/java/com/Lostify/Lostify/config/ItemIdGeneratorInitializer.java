@@ -0,0 +1,50 @@
+package com.Lostify.Lostify.config;
+
+import com.Lostify.Lostify.model.Item;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Moves the pooled item id generator past the ids already in the items table.
+ * <p>
+ * Items used to take AUTO_INCREMENT ids, and the generator row starts at 1 when it is first
+ * created, so without this the first allocated block would collide with existing rows.
+ * Depends on the EntityManagerFactory so that it runs after the schema has been updated.
+ */
+@Component
+public class ItemIdGeneratorInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemIdGeneratorInitializer.class);
+
+    private static final String GENERATOR_TABLE = "id_generators";
+    private static final String GENERATOR_NAME = "items";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemIdGeneratorInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM items", Long.class);
+        // The pooled optimizer hands out the block ending at the stored value, so leave a full block of room
+        long required = maxId + Item.ID_ALLOCATION_SIZE;
+
+        List<Long> current = jdbcTemplate.queryForList(
+                "SELECT next_val FROM " + GENERATOR_TABLE + " WHERE name = ?", Long.class, GENERATOR_NAME);
+        if (current.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO " + GENERATOR_TABLE + " (name, next_val) VALUES (?, ?)", GENERATOR_NAME, required);
+            logger.info("Initialized item id generator at {}", required);
+        } else if (current.get(0) < required) {
+            jdbcTemplate.update("UPDATE " + GENERATOR_TABLE + " SET next_val = ? WHERE name = ?", required, GENERATOR_NAME);
+            logger.info("Moved item id generator from {} to {}", current.get(0), required);
+        }
+    }
+}
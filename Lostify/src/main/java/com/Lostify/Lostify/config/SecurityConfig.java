@@ -2,6 +2,7 @@ package com.Lostify.Lostify.config;
 
 import com.Lostify.Lostify.service.CustomUserDetailsService;
 import com.Lostify.Lostify.config.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -32,11 +33,18 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Completion of an already authorized async request, such as the message stream
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
+                        // Bulk imports can attribute items to any user
+                        .requestMatchers(HttpMethod.POST, "/api/items/import").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/items/cache/**").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/items/photos/**").authenticated()
                         .requestMatchers(HttpMethod.GET, "/api/items").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/items/**").permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/universities").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/uploads/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(sess -> sess.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -70,7 +78,8 @@ public class SecurityConfig {
         configuration.setExposedHeaders(List.of(
             "Authorization",
             "Content-Type",
-            "Content-Disposition"
+            "Content-Disposition",
+            "X-Next-Cursor"
         ));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
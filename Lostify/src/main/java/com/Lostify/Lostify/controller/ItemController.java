@@ -1,22 +1,40 @@
 package com.Lostify.Lostify.controller;
 
 
+import com.Lostify.Lostify.domain.ItemCategory;
 import com.Lostify.Lostify.domain.ItemStatus;
 import com.Lostify.Lostify.model.Item;
 import com.Lostify.Lostify.service.ItemService;
 import com.Lostify.Lostify.service.FileUploadService;
+import com.Lostify.Lostify.service.ItemImportService;
+import com.Lostify.Lostify.service.PhotoVariantService;
+import com.Lostify.Lostify.dto.ItemCacheStats;
 import com.Lostify.Lostify.dto.ItemCreateRequest;
+import com.Lostify.Lostify.dto.ItemFacets;
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemImportResult;
+import com.Lostify.Lostify.dto.ItemListVersion;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+import com.Lostify.Lostify.dto.ItemVersion;
+import com.Lostify.Lostify.dto.PhotoPipelineStats;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
 import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/items")  // All endpoints will start with /api/items
@@ -24,9 +42,17 @@ import java.io.IOException;
 public class ItemController {
 
     private static final Logger logger = LoggerFactory.getLogger(ItemController.class);
+    private static final int MAX_SUGGESTIONS = 50;
+    // A campus-sized search area; keeps the ring walk of the geo index bounded
+    private static final double MAX_NEARBY_RADIUS_METERS = 5_000;
+    // Beyond this many of 64 bits photos stop looking alike, and the index search stops being selective
+    private static final int MAX_PHOTO_DISTANCE = 16;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     
     private final ItemService itemService;
     private final FileUploadService fileUploadService;
+    private final ItemImportService itemImportService;
+    private final PhotoVariantService photoVariantService;
     private final ObjectMapper objectMapper;
 
 
@@ -47,6 +73,8 @@ public class ItemController {
             item.setDescription(itemRequest.getDescription());
             item.setCategory(itemRequest.getCategory());
             item.setLocation(itemRequest.getLocation());
+            item.setLatitude(itemRequest.getLatitude());
+            item.setLongitude(itemRequest.getLongitude());
             item.setContactPhone(itemRequest.getContactPhone());
             item.setContactEmail(itemRequest.getContactEmail());
             
@@ -92,6 +120,8 @@ public class ItemController {
             item.setDescription(itemRequest.getDescription());
             item.setCategory(itemRequest.getCategory());
             item.setLocation(itemRequest.getLocation());
+            item.setLatitude(itemRequest.getLatitude());
+            item.setLongitude(itemRequest.getLongitude());
             item.setContactPhone(itemRequest.getContactPhone());
             item.setContactEmail(itemRequest.getContactEmail());
             
@@ -118,51 +148,216 @@ public class ItemController {
     }
 
 
-    @GetMapping
-    public ResponseEntity<List<Item>> getAllItems(
+    /**
+     * Imports a ledger of items streamed as CSV (with a header row) or NDJSON. The format is taken
+     * from {@code format}, or else from the content type. {@code universityId} and {@code status}
+     * are defaults for rows that do not carry their own. Admins only.
+     */
+    @PostMapping("/import")
+    public ResponseEntity<ItemImportResult> importItems(
             @RequestParam(required = false) Long universityId,
-            @RequestParam(required = false) String category,
-            @RequestParam(required = false) ItemStatus status) {
-        
-        if (universityId != null) {
-            if (category != null && status != null) {
-                return ResponseEntity.ok(itemService.getItemsByUniversityIdAndCategoryAndStatus(universityId, category, status));
-            } else if (category != null) {
-                return ResponseEntity.ok(itemService.getItemsByUniversityIdAndCategory(universityId, category));
-            } else if (status != null) {
-                return ResponseEntity.ok(itemService.getItemsByUniversityIdAndStatus(universityId, status));
-            } else {
-                return ResponseEntity.ok(itemService.getItemsByUniversityId(universityId));
-            }
-        } else if (category != null || status != null) {
-            // For backward compatibility, handle non-university specific filters
-            if (category != null && status != null) {
-                return ResponseEntity.ok(itemService.getItemsByCategoryAndStatus(category, status));
-            } else if (category != null) {
-                return ResponseEntity.ok(itemService.getItemsByCategory(category));
+            @RequestParam(required = false) ItemStatus status,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = "Content-Type", required = false) String contentType,
+            InputStream body) throws IOException {
+        try {
+            ItemImportService.Format importFormat;
+            if (format != null) {
+                importFormat = ItemImportService.Format.valueOf(format.toUpperCase());
             } else {
-                return ResponseEntity.ok(itemService.getItemsByStatus(status));
+                importFormat = contentType != null && contentType.contains("json")
+                        ? ItemImportService.Format.NDJSON : ItemImportService.Format.CSV;
             }
+            return ResponseEntity.ok(itemImportService.importItems(body, importFormat, universityId, status));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid import: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(itemService.getAllItems());
+    }
+
+
+    /**
+     * Lists items one keyset page at a time, newest first unless {@code sort=oldest}.
+     * All filters are optional and combine freely. The body stays a plain array; the cursor
+     * for the next page is returned in the {@value #NEXT_CURSOR_HEADER} header and is absent
+     * on the last page.
+     */
+    @GetMapping
+    public ResponseEntity<List<ItemSummary>> getAllItems(
+            @RequestParam(required = false) Long universityId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) ItemStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate reportedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate reportedTo,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "newest") String sort,
+            WebRequest request) {
+
+        ItemListVersion version = itemService.getListVersion(universityId);
+        if (request.checkNotModified(listETag(version), version.lastModified().toEpochMilli())) {
+            return null;
+        }
+        ItemPage<ItemSummary> page;
+        try {
+            ItemFilter filter = ItemFilter.builder()
+                    .universityId(universityId)
+                    .category(category != null ? ItemCategory.valueOf(category.toUpperCase()) : null)
+                    .status(status)
+                    .reportedFrom(reportedFrom)
+                    .reportedTo(reportedTo)
+                    .location(location)
+                    .build();
+            page = itemService.getItems(filter, ItemPageRequest.of(cursor, size, "oldest".equalsIgnoreCase(sort)));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid argument: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(page, version);
+    }
+
+
+    @GetMapping("/location")
+    public ResponseEntity<List<ItemSummary>> getItemsByLocation(
+            @RequestParam(required = false) Long universityId,
+            @RequestParam String location,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        ItemListVersion version = itemService.getListVersion(universityId);
+        if (request.checkNotModified(listETag(version), version.lastModified().toEpochMilli())) {
+            return null;
+        }
+        ItemPage<ItemSummary> page;
+        try {
+            page = itemService.getItemsByLocation(universityId, location, ItemPageRequest.of(cursor, size, false));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid argument: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(page, version);
+    }
+
+
+    @GetMapping("/locations")
+    public ResponseEntity<List<String>> getLocationSuggestions(
+            @RequestParam Long universityId,
+            @RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return ResponseEntity.ok(itemService.getLocationSuggestions(universityId, prefix, cappedLimit));
+    }
+
+
+    /**
+     * Items of a university within {@code radius} metres of a point, nearest first.
+     */
+    @GetMapping("/nearby")
+    public ResponseEntity<List<ItemSummary>> getNearbyItems(
+            @RequestParam Long universityId,
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "500") double radius,
+            @RequestParam(required = false) ItemStatus status,
+            @RequestParam(defaultValue = "20") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        double cappedRadius = Math.min(Math.max(radius, 1), MAX_NEARBY_RADIUS_METERS);
+        try {
+            return ResponseEntity.ok(itemService.getNearbyItems(universityId, lat, lng, cappedRadius, status, cappedLimit));
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid argument: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+
+    /**
+     * Item counts by category and status, for one university or for all when none is given.
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ItemFacets> getFacets(@RequestParam(required = false) Long universityId) {
+        return ResponseEntity.ok(itemService.getFacets(universityId));
+    }
+
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ItemCacheStats> getCacheStats() {
+        return ResponseEntity.ok(itemService.getCacheStats());
+    }
+
+
+    @GetMapping("/photos/stats")
+    public ResponseEntity<PhotoPipelineStats> getPhotoPipelineStats() {
+        return ResponseEntity.ok(photoVariantService.stats());
     }
 
 
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-        return ResponseEntity.ok(itemService.getItemById(id));
+    public ResponseEntity<Item> getItemById(@PathVariable Long id, WebRequest request) {
+        ItemVersion version;
+        try {
+            version = itemService.getItemVersion(id);
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+        // Revalidation is answered from the version columns alone; the entity is only loaded on a miss
+        String eTag = "\"item-" + id + "-" + version.version() + "\"";
+        Instant lastModified = version.lastModifiedOrReported();
+        if (request.checkNotModified(eTag, lastModified.toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .lastModified(lastModified)
+                .body(itemService.getItemById(id));
     }
 
 
     @GetMapping("/found/suggestions")
-    public ResponseEntity<List<Item>> getFoundItemSuggestions(@RequestParam String description) {
-        return ResponseEntity.ok(itemService.getFoundItemSuggestions(description));
+    public ResponseEntity<List<ItemSummary>> getFoundItemSuggestions(
+            @RequestParam String description,
+            @RequestParam(required = false) Long universityId,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return ResponseEntity.ok(itemService.getFoundItemSuggestions(description, universityId, category, cappedLimit));
     }
 
 
     @GetMapping("/lost/suggestions")
-    public ResponseEntity<List<Item>> getLostItemSuggestions(@RequestParam String description) {
-        return ResponseEntity.ok(itemService.getLostItemSuggestions(description));
+    public ResponseEntity<List<ItemSummary>> getLostItemSuggestions(
+            @RequestParam String description,
+            @RequestParam(required = false) Long universityId,
+            @RequestParam(required = false) String category,
+            @RequestParam(defaultValue = "10") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return ResponseEntity.ok(itemService.getLostItemSuggestions(description, universityId, category, cappedLimit));
+    }
+
+
+    @GetMapping("/{id}/matches")
+    public ResponseEntity<List<ItemSummary>> getItemMatches(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        return ResponseEntity.ok(itemService.getItemMatches(id, cappedLimit));
+    }
+
+
+    /**
+     * Items whose photos look like this item's photos, e.g. a found report of the same object
+     * photographed differently. Distance is the number of differing perceptual hash bits.
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<List<ItemSummary>> getVisuallySimilarItems(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int maxDistance,
+            @RequestParam(required = false) ItemStatus status,
+            @RequestParam(defaultValue = "10") int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        int cappedDistance = Math.min(Math.max(maxDistance, 0), MAX_PHOTO_DISTANCE);
+        return ResponseEntity.ok(itemService.getVisuallySimilarItems(id, cappedDistance, status, cappedLimit));
     }
 
 
@@ -182,4 +377,23 @@ public class ItemController {
         itemService.deleteItem(id);
         return ResponseEntity.noContent().build();  // HTTP 204
     }
+
+
+    private ResponseEntity<List<ItemSummary>> toResponse(ItemPage<ItemSummary> page, ItemListVersion version) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(listETag(version))
+                .lastModified(version.lastModified());
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * Lists only change when an item of the university changes, so the university's change
+     * counter validates every page and filter of it.
+     */
+    private static String listETag(ItemListVersion version) {
+        return "\"items-" + version.epoch() + "-" + version.generation() + "\"";
+    }
 }
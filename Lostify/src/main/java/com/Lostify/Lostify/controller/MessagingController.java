@@ -1,14 +1,16 @@
 package com.Lostify.Lostify.controller;
 
 import com.Lostify.Lostify.dto.*;
+import com.Lostify.Lostify.service.MessageStreamBroker;
 import com.Lostify.Lostify.service.MessagingService;
-import com.Lostify.Lostify.repository.UserRepository;
-import com.Lostify.Lostify.model.User;
+import com.Lostify.Lostify.service.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -17,11 +19,18 @@ import java.util.List;
 @CrossOrigin(origins = "http://localhost:3000")
 public class MessagingController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private MessagingService messagingService;
 
     @Autowired
-    private UserRepository userRepository;
+    private MessageStreamBroker messageStreamBroker;
+
+    @Autowired
+    private UserCache userCache;
 
     @PostMapping("/conversation")
     public ResponseEntity<ConversationDTO> startConversation(@RequestBody StartConversationRequest request) {
@@ -44,48 +53,125 @@ public class MessagingController {
         Long currentUserId = getCurrentUserId(username);
 
         // First get or create conversation
-        ConversationDTO conversation = messagingService.startOrGetConversation(
+        Long conversationId = messagingService.resolveConversationId(
                 currentUserId, request.getReceiverId(), request.getItemId());
 
         MessageDTO message = messagingService.sendMessage(
-                conversation.getId(), currentUserId, request.getContent());
+                conversationId, currentUserId, request.getContent());
         
         return ResponseEntity.ok(message);
     }
 
+    /**
+     * Sends to a conversation the client already has open; only the content of the body is used.
+     */
+    @PostMapping("/conversation/{conversationId}/send")
+    public ResponseEntity<MessageDTO> sendToConversation(@PathVariable Long conversationId,
+                                                         @RequestBody SendMessageRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long currentUserId = getCurrentUserId(auth.getName());
+
+        MessageDTO message = messagingService.sendMessage(conversationId, currentUserId, request.getContent());
+        return ResponseEntity.ok(message);
+    }
+
+    /**
+     * Lists the current user's conversations one page at a time, most recent first. The body
+     * stays a plain array; the cursor for the next page is returned in the
+     * {@value #NEXT_CURSOR_HEADER} header and is absent on the last page.
+     */
     @GetMapping("/conversations")
-    public ResponseEntity<List<ConversationDTO>> getUserConversations() {
+    public ResponseEntity<List<ConversationDTO>> getUserConversations(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
         Long currentUserId = getCurrentUserId(username);
 
-        List<ConversationDTO> conversations = messagingService.getUserConversations(currentUserId);
-        return ResponseEntity.ok(conversations);
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        InboxPage page;
+        try {
+            page = messagingService.getUserConversations(currentUserId, cursor, cappedLimit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.conversations());
     }
 
+    /**
+     * Lists a conversation one page at a time, oldest message first within the page. Without a
+     * cursor the newest messages are returned; {@code before} pages back through the history and
+     * {@code after} fetches what arrived since. The body stays a plain array; the cursor to
+     * continue in the same direction is returned in the {@value #NEXT_CURSOR_HEADER} header and
+     * is absent when nothing is left.
+     */
     @GetMapping("/conversation/{conversationId}/messages")
-    public ResponseEntity<List<MessageDTO>> getConversationMessages(@PathVariable Long conversationId) {
+    public ResponseEntity<List<MessageDTO>> getConversationMessages(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") int limit) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
         Long currentUserId = getCurrentUserId(username);
 
-        List<MessageDTO> messages = messagingService.getConversationMessages(conversationId, currentUserId);
-        return ResponseEntity.ok(messages);
+        int cappedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        MessagePage page;
+        try {
+            page = messagingService.getConversationMessages(conversationId, currentUserId, before, after, cappedLimit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor().toString());
+        }
+        return response.body(page.messages());
     }
 
     @PostMapping("/conversation/{conversationId}/read")
-    public ResponseEntity<Void> markAsRead(@PathVariable Long conversationId) {
+    public ResponseEntity<Void> markAsRead(@PathVariable Long conversationId,
+                                           @RequestParam(required = false) Long upTo) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         String username = auth.getName();
         Long currentUserId = getCurrentUserId(username);
 
-        messagingService.markMessagesAsRead(conversationId, currentUserId);
+        messagingService.markMessagesAsRead(conversationId, currentUserId, upTo);
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Total unread messages of the current user, for badges that poll on every page.
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<UnreadTotal> getUnreadCount() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long currentUserId = getCurrentUserId(auth.getName());
+
+        return ResponseEntity.ok(new UnreadTotal(messagingService.getUnreadTotal(currentUserId)));
+    }
+
+    /**
+     * Server-Sent Events stream of new messages ("message") and read conversations ("read")
+     * of the current user, so clients no longer poll for them.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long currentUserId = getCurrentUserId(auth.getName());
+
+        return messageStreamBroker.open(currentUserId);
+    }
+
     private Long getCurrentUserId(String username) {
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return user.getId();
+        Long userId = userCache.findIdByUsername(username);
+        if (userId == null) {
+            throw new RuntimeException("User not found");
+        }
+        return userId;
     }
 }
\ No newline at end of file
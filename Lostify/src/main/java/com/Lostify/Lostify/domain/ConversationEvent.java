@@ -0,0 +1,36 @@
+package com.Lostify.Lostify.domain;
+
+import com.Lostify.Lostify.dto.MessageDTO;
+
+/**
+ * Published by the messaging service when a message is sent or a conversation is read.
+ * The message stream broker and the unread counter listen for it once it has been committed.
+ * {@code unreadCount} and {@code unreadDelta} describe the unread messages of the user who
+ * gains or loses them: the recipient of a message, or the reader.
+ */
+public record ConversationEvent(Type type, Long conversationId, Long userId, Long otherUserId, MessageDTO message,
+                                int unreadCount, int unreadDelta) {
+
+    public enum Type {
+        // userId sent the message to otherUserId; the message is as the sender sees it
+        MESSAGE_SENT,
+        // userId moved their read watermark; unreadCount is what is left unread in the conversation
+        READ
+    }
+
+    public static ConversationEvent messageSent(Long conversationId, Long senderId, Long recipientId, MessageDTO message) {
+        return new ConversationEvent(Type.MESSAGE_SENT, conversationId, senderId, recipientId, message, 0, 1);
+    }
+
+    public static ConversationEvent read(Long conversationId, Long readerId, int previousUnreadCount, int unreadCount) {
+        return new ConversationEvent(Type.READ, conversationId, readerId, null, null,
+                unreadCount, unreadCount - previousUnreadCount);
+    }
+
+    /**
+     * The user whose unread total changes.
+     */
+    public Long unreadUserId() {
+        return type == Type.MESSAGE_SENT ? otherUserId : userId;
+    }
+}
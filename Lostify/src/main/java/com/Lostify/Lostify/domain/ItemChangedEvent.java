@@ -0,0 +1,47 @@
+package com.Lostify.Lostify.domain;
+
+import com.Lostify.Lostify.model.Item;
+
+/**
+ * Published by the item service whenever an item is reported, changes status or is deleted.
+ * In-memory indexes listen for it to stay in sync with the items table.
+ */
+public record ItemChangedEvent(Type type, Item item, ItemStatus previousStatus) {
+
+    public enum Type {
+        CREATED,
+        // Created through a bulk import; indexes treat it like CREATED, matching skips it
+        IMPORTED,
+        STATUS_CHANGED,
+        DELETED,
+        // Moved to the archive tables; indexes treat it like DELETED
+        ARCHIVED
+    }
+
+    public static ItemChangedEvent created(Item item) {
+        return new ItemChangedEvent(Type.CREATED, item, null);
+    }
+
+    public static ItemChangedEvent imported(Item item) {
+        return new ItemChangedEvent(Type.IMPORTED, item, null);
+    }
+
+    public static ItemChangedEvent statusChanged(Item item, ItemStatus previousStatus) {
+        return new ItemChangedEvent(Type.STATUS_CHANGED, item, previousStatus);
+    }
+
+    public static ItemChangedEvent deleted(Item item) {
+        return new ItemChangedEvent(Type.DELETED, item, item.getStatus());
+    }
+
+    public static ItemChangedEvent archived(Item item) {
+        return new ItemChangedEvent(Type.ARCHIVED, item, item.getStatus());
+    }
+
+    /**
+     * True when the item has left the items table, whether deleted or archived.
+     */
+    public boolean isRemoval() {
+        return type == Type.DELETED || type == Type.ARCHIVED;
+    }
+}
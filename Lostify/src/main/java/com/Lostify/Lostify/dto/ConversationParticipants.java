@@ -0,0 +1,17 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * The two participants of a conversation and the item it is about.
+ */
+public record ConversationParticipants(Long conversationId, Long user1Id, Long user2Id, Long itemId) {
+
+    /**
+     * The participant other than the given user, or null if the user takes no part.
+     */
+    public Long other(Long userId) {
+        if (user1Id.equals(userId)) {
+            return user2Id;
+        }
+        return user2Id.equals(userId) ? user1Id : null;
+    }
+}
@@ -0,0 +1,7 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * Tells the reader's sessions how many messages of the conversation are left unread.
+ */
+public record ConversationReadPush(Long conversationId, int unreadCount) {
+}
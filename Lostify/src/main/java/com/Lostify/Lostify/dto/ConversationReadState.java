@@ -0,0 +1,19 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * The participants of a conversation and how far each has read.
+ */
+public record ConversationReadState(Long user1Id, Long user2Id, long user1LastReadId, long user2LastReadId) {
+
+    public boolean hasParticipant(Long userId) {
+        return user1Id.equals(userId) || user2Id.equals(userId);
+    }
+
+    /**
+     * A message is read once its recipient's watermark has reached it.
+     */
+    public boolean isRead(Long messageId, Long senderId) {
+        long recipientWatermark = user1Id.equals(senderId) ? user2LastReadId : user1LastReadId;
+        return messageId <= recipientWatermark;
+    }
+}
@@ -0,0 +1,10 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+
+/**
+ * Number of items of one university with a given category and status.
+ */
+public record FacetCount(Long universityId, ItemCategory category, ItemStatus status, Long count) {
+}
@@ -0,0 +1,10 @@
+package com.Lostify.Lostify.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's inbox, most recent conversation first. {@code nextCursor} continues
+ * with older conversations and is null on the last page.
+ */
+public record InboxPage(List<ConversationDTO> conversations, String nextCursor) {
+}
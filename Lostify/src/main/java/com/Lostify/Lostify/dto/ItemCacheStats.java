@@ -0,0 +1,12 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * Counters of the item list cache since startup.
+ */
+public record ItemCacheStats(long hits, long misses, long evictions, long invalidations, int size, int maxSize) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -15,6 +15,8 @@ public class ItemCreateRequest {
     private String description;
     private ItemCategory category;
     private String location;
+    private Double latitude;
+    private Double longitude;
     private LocalDate dateReported;
     private Long universityId;
     private String contactPhone;
@@ -0,0 +1,16 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+
+import java.util.Map;
+
+/**
+ * Item counts of a university by category and status. Every category and status is present,
+ * with zero counts where there are no items.
+ */
+public record ItemFacets(Long universityId, long total,
+                         Map<ItemCategory, Map<ItemStatus, Long>> counts,
+                         Map<ItemCategory, Long> byCategory,
+                         Map<ItemStatus, Long> byStatus) {
+}
@@ -0,0 +1,26 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Optional filters for item listings. Null fields are not applied.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemFilter {
+    private Long universityId;
+    private ItemCategory category;
+    private ItemStatus status;
+    private LocalDate reportedFrom;
+    private LocalDate reportedTo;
+    private String location;
+}
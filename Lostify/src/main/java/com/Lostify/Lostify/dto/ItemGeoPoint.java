@@ -0,0 +1,19 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.model.Item;
+
+/**
+ * Coordinates of an item as held by the spatial index.
+ */
+public record ItemGeoPoint(Long id, Long universityId, ItemStatus status, Double latitude, Double longitude) {
+
+    public static ItemGeoPoint from(Item item) {
+        return new ItemGeoPoint(
+                item.getId(),
+                item.getUniversity() != null ? item.getUniversity().getId() : null,
+                item.getStatus(),
+                item.getLatitude(),
+                item.getLongitude());
+    }
+}
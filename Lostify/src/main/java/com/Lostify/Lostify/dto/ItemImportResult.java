@@ -0,0 +1,14 @@
+package com.Lostify.Lostify.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk item import. Only the first errors are kept, so a bad file
+ * cannot make the result itself unbounded.
+ */
+public record ItemImportResult(long imported, long failed, List<RowError> errors,
+                               long elapsedMillis, double rowsPerSecond) {
+
+    public record RowError(long line, String message) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.Lostify.Lostify.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One raw row of a bulk item import, as read from a CSV line or an NDJSON object.
+ * Enum and date fields stay strings so that bad values become per-row errors.
+ */
+@Data
+@NoArgsConstructor
+public class ItemImportRow {
+    private String name;
+    private String description;
+    private String category;
+    private String status;
+    private String location;
+    private String dateReported;
+    private Double latitude;
+    private Double longitude;
+    private String contactPhone;
+    private String contactEmail;
+    private List<String> photoUrls = new ArrayList<>();
+    private Long universityId;
+    // Username of the reporter; defaults to the importing user
+    private String reporter;
+}
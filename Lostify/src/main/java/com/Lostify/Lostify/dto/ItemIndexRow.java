@@ -0,0 +1,34 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.model.Item;
+
+import java.time.LocalDate;
+
+/**
+ * Flat, association-free view of an item used to build the in-memory indexes
+ * without hydrating users, universities or photos.
+ */
+public record ItemIndexRow(
+        Long id,
+        Long universityId,
+        ItemCategory category,
+        ItemStatus status,
+        String name,
+        String description,
+        String location,
+        LocalDate dateReported) {
+
+    public static ItemIndexRow from(Item item) {
+        return new ItemIndexRow(
+                item.getId(),
+                item.getUniversity() != null ? item.getUniversity().getId() : null,
+                item.getCategory(),
+                item.getStatus(),
+                item.getName(),
+                item.getDescription(),
+                item.getLocation(),
+                item.getDateReported());
+    }
+}
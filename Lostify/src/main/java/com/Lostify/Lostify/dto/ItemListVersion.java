@@ -0,0 +1,10 @@
+package com.Lostify.Lostify.dto;
+
+import java.time.Instant;
+
+/**
+ * Change counter of a university's item listings, with the time of the last change.
+ * The epoch identifies the process that handed out the counter, since counters restart at zero.
+ */
+public record ItemListVersion(long epoch, long generation, Instant lastModified) {
+}
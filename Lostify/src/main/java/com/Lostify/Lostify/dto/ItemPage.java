@@ -0,0 +1,18 @@
+package com.Lostify.Lostify.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated item listing. {@code nextCursor} is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPage<T> {
+    private List<T> items;
+    private String nextCursor;
+}
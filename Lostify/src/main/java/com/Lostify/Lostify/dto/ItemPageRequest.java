@@ -0,0 +1,26 @@
+package com.Lostify.Lostify.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Paging parameters for item listings: an opaque cursor from the previous page,
+ * the page size and the sort direction on (dateReported, id).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPageRequest {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private String cursor;
+    private int size = DEFAULT_SIZE;
+    private boolean oldestFirst;
+
+    public static ItemPageRequest of(String cursor, int size, boolean oldestFirst) {
+        return new ItemPageRequest(cursor, Math.min(Math.max(size, 1), MAX_SIZE), oldestFirst);
+    }
+}
@@ -0,0 +1,9 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemStatus;
+
+/**
+ * Perceptual hash of one photo of an item, as held by the visual similarity index.
+ */
+public record ItemPhotoHash(Long itemId, Long universityId, ItemStatus status, Long hash) {
+}
@@ -0,0 +1,70 @@
+package com.Lostify.Lostify.dto;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of an item for list endpoints. Filled by a single joined row query
+ * plus one batched query for photo URLs, instead of hydrating managed entities.
+ */
+@Data
+@NoArgsConstructor
+public class ItemSummary {
+    private Long id;
+    private String name;
+    private String description;
+    private ItemCategory category;
+    private ItemStatus status;
+    private LocalDate dateReported;
+    private String location;
+    private Double latitude;
+    private Double longitude;
+    // Only set by the nearby search
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceMeters;
+    // Only set by the visual similarity search: differing bits between the closest photos
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer photoDistance;
+    private Long universityId;
+    private String universityName;
+    private String imageUrl;
+    private List<String> photoUrls = new ArrayList<>();
+    private String contactPhone;
+    private String contactEmail;
+    private UserDTO user;
+
+    // Used by the JPA constructor expression in ItemSummaryRepositoryImpl; argument order matters
+    public ItemSummary(Long id, String name, String description, ItemCategory category, ItemStatus status,
+                       LocalDate dateReported, String location, Double latitude, Double longitude,
+                       Long universityId, String universityName,
+                       String imageUrl, String contactPhone, String contactEmail,
+                       Long userId, String username, String userEmail, String userPhoneNumber) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.category = category;
+        this.status = status;
+        this.dateReported = dateReported;
+        this.location = location;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.universityId = universityId;
+        this.universityName = universityName;
+        this.imageUrl = imageUrl;
+        this.contactPhone = contactPhone;
+        this.contactEmail = contactEmail;
+        this.user = UserDTO.builder()
+                .id(userId)
+                .username(username)
+                .email(userEmail)
+                .phoneNumber(userPhoneNumber)
+                .build();
+    }
+}
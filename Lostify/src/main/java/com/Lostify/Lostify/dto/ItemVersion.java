@@ -0,0 +1,21 @@
+package com.Lostify.Lostify.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Validator columns of a single item, read without loading the entity.
+ */
+public record ItemVersion(Long id, Long version, Instant lastModified, LocalDate dateReported) {
+
+    /**
+     * Rows written before lastModified existed fall back to the start of their report date.
+     */
+    public Instant lastModifiedOrReported() {
+        if (lastModified != null) {
+            return lastModified;
+        }
+        return dateReported != null ? dateReported.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.EPOCH;
+    }
+}
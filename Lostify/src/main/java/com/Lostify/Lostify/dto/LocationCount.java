@@ -0,0 +1,8 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * Number of items reported at one normalized location of a university.
+ * {@code location} is one of the original spellings, used for display.
+ */
+public record LocationCount(Long universityId, String normalizedLocation, String location, Long count) {
+}
@@ -0,0 +1,10 @@
+package com.Lostify.Lostify.dto;
+
+import java.util.List;
+
+/**
+ * One page of a conversation, oldest message first. {@code nextCursor} is the message id to
+ * continue from in the same direction, and is null when there are no more messages that way.
+ */
+public record MessagePage(List<MessageDTO> messages, Long nextCursor) {
+}
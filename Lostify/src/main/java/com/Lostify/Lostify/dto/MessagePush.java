@@ -0,0 +1,7 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * A new message pushed to a participant, with the change to their unread count of the conversation.
+ */
+public record MessagePush(Long conversationId, MessageDTO message, int unreadDelta) {
+}
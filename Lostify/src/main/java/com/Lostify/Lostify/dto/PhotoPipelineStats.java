@@ -0,0 +1,7 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * State of the photo variant pipeline since startup.
+ */
+public record PhotoPipelineStats(int queued, int active, long completed, long failed, long rejected) {
+}
@@ -0,0 +1,7 @@
+package com.Lostify.Lostify.dto;
+
+/**
+ * Unread messages of a user across all conversations.
+ */
+public record UnreadTotal(long unreadCount) {
+}
@@ -1,5 +1,6 @@
 package com.Lostify.Lostify.dto;
 
+import com.Lostify.Lostify.model.User;
 import lombok.Data;
 import lombok.Builder;
 import lombok.NoArgsConstructor;
@@ -14,4 +15,13 @@ public class UserDTO {
     private String username;
     private String email;
     private String phoneNumber;
+
+    public static UserDTO from(User user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .phoneNumber(user.getPhoneNumber())
+                .build();
+    }
 }
\ No newline at end of file
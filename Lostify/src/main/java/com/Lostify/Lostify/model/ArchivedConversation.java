@@ -0,0 +1,42 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a conversation about an archived item.
+ */
+@Entity
+@Table(name = "archived_conversations", indexes = {
+    @Index(name = "idx_archived_conversations_item", columnList = "item_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedConversation {
+
+    @Id
+    private Long id;
+
+    @Column(name = "user1_id", nullable = false)
+    private Long user1Id;
+
+    @Column(name = "user2_id", nullable = false)
+    private Long user2Id;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,38 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cold copy of a message of an archived conversation.
+ */
+@Entity
+@Table(name = "archived_conversation_messages", indexes = {
+    @Index(name = "idx_archived_messages_conversation", columnList = "conversation_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedConversationMessage {
+
+    @Id
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Column(nullable = false, length = 1000)
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+
+    @Column(name = "is_read", nullable = false)
+    private boolean isRead;
+}
@@ -0,0 +1,91 @@
+package com.Lostify.Lostify.model;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cold copy of an item moved out of {@code items} by the archiver. Rows are written with
+ * INSERT ... SELECT, so the columns mirror {@link Item} and references are plain ids.
+ */
+@Entity
+@Table(name = "archived_items", indexes = {
+    @Index(name = "idx_archived_items_university_date", columnList = "university_id, date_reported, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedItem {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ItemCategory category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ItemStatus status;
+
+    @Column(nullable = false)
+    private LocalDate dateReported;
+
+    @Column(nullable = false)
+    private String location;
+
+    @Column(name = "location_normalized")
+    private String locationNormalized;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(name = "university_id", nullable = false)
+    private Long universityId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(length = 1000)
+    private String imageUrl;
+
+    @ElementCollection
+    // Looked up by URL when photo blobs are reference-counted and garbage-collected
+    @CollectionTable(name = "archived_item_photos", joinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_archived_item_photos_url", columnList = "photo_url"))
+    @Column(name = "photo_url", length = Item.MAX_PHOTO_URL_LENGTH)
+    @Builder.Default
+    private List<String> photoUrls = new ArrayList<>();
+
+    @ElementCollection
+    @CollectionTable(name = "archived_item_photo_variants", joinColumns = @JoinColumn(name = "item_id"))
+    @Builder.Default
+    private List<PhotoVariant> photoVariants = new ArrayList<>();
+
+    @Column(length = 15)
+    private String contactPhone;
+
+    @Column(length = 100)
+    private String contactEmail;
+
+    private long version;
+
+    private Instant lastModified;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
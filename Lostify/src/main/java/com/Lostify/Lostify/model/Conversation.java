@@ -15,6 +15,8 @@ import java.util.ArrayList;
 @Builder
 public class Conversation {
 
+    public static final int PREVIEW_LENGTH = 255;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -37,6 +39,28 @@ public class Conversation {
     @Column(nullable = false)
     private LocalDateTime lastMessageAt;
 
+    // Inbox summary, written together with each message so the inbox never reads messages
+    @Column(length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_sender_id")
+    private User lastSender;
+
+    // Messages the participant has not read yet
+    @Column(name = "user1_unread_count", nullable = false)
+    private int user1UnreadCount;
+
+    @Column(name = "user2_unread_count", nullable = false)
+    private int user2UnreadCount;
+
+    // Read watermarks: every message up to this id counts as read by the participant
+    @Column(name = "user1_last_read_id", nullable = false)
+    private long user1LastReadId;
+
+    @Column(name = "user2_last_read_id", nullable = false)
+    private long user2LastReadId;
+
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ConversationMessage> messages = new ArrayList<>();
 
@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "conversation_messages")
+@Table(name = "conversation_messages", indexes = {
+    // Serves every page of a conversation, newest first or from a cursor
+    @Index(name = "idx_conversation_messages_conversation_id", columnList = "conversation_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,11 +33,15 @@ public class ConversationMessage {
     @Column(nullable = false)
     private LocalDateTime sentAt;
 
+    // Superseded by the read watermarks of the conversation and no longer updated;
+    // the archive resolves it from the watermarks when a conversation is archived
     @Column(nullable = false)
     private boolean isRead = false;
 
     @PrePersist
     protected void onCreate() {
-        sentAt = LocalDateTime.now();
+        if (sentAt == null) {
+            sentAt = LocalDateTime.now();
+        }
     }
 }
\ No newline at end of file
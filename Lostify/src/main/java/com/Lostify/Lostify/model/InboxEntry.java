@@ -0,0 +1,45 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One conversation in one participant's inbox, written next to every message, so an inbox page
+ * is a range of the (user_id, last_message_at, conversation_id) index rather than an OR over
+ * both participant columns of the conversations table.
+ */
+@Entity
+@Table(name = "user_inbox", indexes = {
+        @Index(name = "idx_user_inbox_recent", columnList = "user_id, last_message_at, conversation_id"),
+        @Index(name = "idx_user_inbox_conversation_id", columnList = "conversation_id")
+})
+@IdClass(InboxEntry.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InboxEntry {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "conversation_id")
+    private Long conversationId;
+
+    // Copy of the conversation's lastMessageAt
+    @Column(name = "last_message_at", nullable = false)
+    private LocalDateTime lastMessageAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long conversationId;
+    }
+}
@@ -3,23 +3,44 @@ package com.Lostify.Lostify.model;
 import com.fasterxml.jackson.annotation.*;
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Locale;
 import com.Lostify.Lostify.domain.ItemStatus;
 import com.Lostify.Lostify.domain.ItemCategory;
 
 @Entity
-@Table(name = "items")
+@Table(name = "items", indexes = {
+    // One index per listing filter combination: equality columns first, then the (date_reported, id) sort keys
+    @Index(name = "idx_items_date", columnList = "date_reported, id"),
+    @Index(name = "idx_items_category_date", columnList = "category, date_reported, id"),
+    @Index(name = "idx_items_status_date", columnList = "status, date_reported, id"),
+    @Index(name = "idx_items_category_status_date", columnList = "category, status, date_reported, id"),
+    @Index(name = "idx_items_university_date", columnList = "university_id, date_reported, id"),
+    @Index(name = "idx_items_university_category_date", columnList = "university_id, category, date_reported, id"),
+    @Index(name = "idx_items_university_status_date", columnList = "university_id, status, date_reported, id"),
+    @Index(name = "idx_items_university_category_status_date", columnList = "university_id, category, status, date_reported, id"),
+    @Index(name = "idx_items_university_location_date", columnList = "university_id, location_normalized, date_reported, id"),
+    @Index(name = "idx_items_location_date", columnList = "location_normalized, date_reported, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Item {
 
+    public static final int ID_ALLOCATION_SIZE = 50;
+    // The longest utf8mb4 column MySQL can index in full (3072 bytes)
+    public static final int MAX_PHOTO_URL_LENGTH = 768;
 
+
+    // Pooled ids handed out in blocks, so Hibernate can batch inserts; IDENTITY would disable batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "item_id")
+    @TableGenerator(name = "item_id", table = "id_generators", pkColumnName = "name",
+            valueColumnName = "next_val", pkColumnValue = "items", allocationSize = Item.ID_ALLOCATION_SIZE)
     private Long id;
 
 
@@ -45,6 +66,16 @@ public class Item {
     @Column(nullable = false)
     private String location;
 
+    // Trimmed, lower-cased copy of location used for indexed exact-match lookups
+    @JsonIgnore
+    @Column(name = "location_normalized")
+    private String locationNormalized;
+
+    // Optional WGS84 coordinates of where the item was lost or found
+    private Double latitude;
+
+    private Double longitude;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "university_id", nullable = false)
     @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
@@ -57,17 +88,51 @@ public class Item {
     @JsonProperty("user")
     private User user;
 
+    // Cover image for cards; PhotoVariantService sets it to the thumbnail of the first photo
     @Column(length = 1000)
     private String imageUrl;
 
     @ElementCollection
-    @CollectionTable(name = "item_photos", joinColumns = @JoinColumn(name = "item_id"))
-    @Column(name = "photo_url", length = 1000)
+    // Looked up by URL when photo blobs are reference-counted and garbage-collected
+    @CollectionTable(name = "item_photos", joinColumns = @JoinColumn(name = "item_id"),
+            indexes = @Index(name = "idx_item_photos_url", columnList = "photo_url"))
+    @Column(name = "photo_url", length = Item.MAX_PHOTO_URL_LENGTH)
     private List<String> photoUrls = new ArrayList<>();
 
+    // Filled in asynchronously after the item is reported; empty until then
+    @ElementCollection
+    @CollectionTable(name = "item_photo_variants", joinColumns = @JoinColumn(name = "item_id"))
+    @Builder.Default
+    private List<PhotoVariant> photoVariants = new ArrayList<>();
+
+    // Set when none of the photos could be turned into variants, so the backfill stops retrying
+    @JsonIgnore
+    private Instant photoVariantsFailedAt;
+
     @Column(length = 15)
     private String contactPhone;
 
     @Column(length = 100)
     private String contactEmail;
+
+    // Optimistic lock version, also the strong validator behind the item's ETag
+    @Version
+    private long version;
+
+    private Instant lastModified;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        locationNormalized = normalizeLocation(location);
+        lastModified = Instant.now();
+    }
+
+    /**
+     * Normalizes a free-text location for comparison. Also used to backfill rows from before
+     * the normalized column, so both agree on what counts as whitespace.
+     */
+    public static String normalizeLocation(String location) {
+        return location == null ? null : location.trim().toLowerCase(Locale.ROOT);
+    }
 }
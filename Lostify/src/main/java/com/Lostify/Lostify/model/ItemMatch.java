@@ -0,0 +1,48 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A scored candidate pairing between a lost item and a found item.
+ * Each pair is stored once per direction so that the matches of an item
+ * can be read with a single index range scan on (item_id, score).
+ */
+@Entity
+@Table(name = "item_matches",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"item_id", "candidate_id"}),
+       indexes = {
+           @Index(name = "idx_item_matches_item_score", columnList = "item_id, score"),
+           @Index(name = "idx_item_matches_candidate", columnList = "candidate_id")
+       })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemMatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "candidate_id", nullable = false)
+    private Item candidate;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        computedAt = LocalDateTime.now();
+    }
+}
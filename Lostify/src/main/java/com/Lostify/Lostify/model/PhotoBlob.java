@@ -0,0 +1,45 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One stored photo file, named after the SHA-256 of its content. The reference count follows
+ * the {@code item_photos} rows that point at the file; once it drops to zero the file becomes
+ * eligible for removal by the sweeper after a grace period.
+ */
+@Entity
+@Table(name = "photo_blobs", indexes = {
+    @Index(name = "idx_photo_blobs_unreferenced", columnList = "ref_count, unreferenced_since")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhotoBlob {
+
+    @Id
+    @Column(length = 80)
+    private String filename;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    // Perceptual hash for visual matching; null when the file could not be decoded as an image
+    private Long dhash;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // Set while nothing references the blob; the grace period is measured from here
+    @Column(name = "unreferenced_since")
+    private Instant unreferencedSince;
+}
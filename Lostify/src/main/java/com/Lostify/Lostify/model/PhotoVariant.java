@@ -0,0 +1,26 @@
+package com.Lostify.Lostify.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Downscaled copies of one uploaded photo, written next to the original.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhotoVariant {
+
+    @Column(name = "original_url", length = 1000)
+    private String originalUrl;
+
+    @Column(name = "thumbnail_url", length = 1000)
+    private String thumbnailUrl;
+
+    @Column(name = "medium_url", length = 1000)
+    private String mediumUrl;
+}
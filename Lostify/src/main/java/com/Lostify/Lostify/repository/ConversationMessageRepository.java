@@ -1,23 +1,43 @@
 package com.Lostify.Lostify.repository;
 
 import com.Lostify.Lostify.model.ConversationMessage;
-import com.Lostify.Lostify.model.Conversation;
-import com.Lostify.Lostify.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ConversationMessageRepository extends JpaRepository<ConversationMessage, Long> {
 
-    List<ConversationMessage> findByConversationOrderBySentAtAsc(Conversation conversation);
+    @Query("SELECT MAX(m.id) FROM ConversationMessage m WHERE m.conversation.id = :conversationId")
+    Optional<Long> findLatestId(@Param("conversationId") Long conversationId);
 
-    @Query("SELECT COUNT(m) FROM ConversationMessage m WHERE m.conversation = :conversation AND m.sender != :user AND m.isRead = false")
-    long countUnreadMessages(@Param("conversation") Conversation conversation, @Param("user") User user);
+    /**
+     * The oldest message of the conversation that the user has not read, given their watermark.
+     */
+    @Query("SELECT MIN(m.id) FROM ConversationMessage m WHERE m.conversation.id = :conversationId " +
+           "AND m.sender.id <> :userId AND m.id > :lastReadId")
+    Optional<Long> findFirstUnreadId(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+                                     @Param("lastReadId") long lastReadId);
 
-    @Query("SELECT m FROM ConversationMessage m WHERE m.conversation = :conversation AND m.sender != :user AND m.isRead = false")
-    List<ConversationMessage> findUnreadMessages(@Param("conversation") Conversation conversation, @Param("user") User user);
+    /**
+     * The newest messages of a conversation, newest first, with their senders.
+     */
+    @Query("SELECT m FROM ConversationMessage m JOIN FETCH m.sender WHERE m.conversation.id = :conversationId ORDER BY m.id DESC")
+    List<ConversationMessage> findLatest(@Param("conversationId") Long conversationId, Pageable pageable);
+
+    @Query("SELECT m FROM ConversationMessage m JOIN FETCH m.sender " +
+           "WHERE m.conversation.id = :conversationId AND m.id < :beforeId ORDER BY m.id DESC")
+    List<ConversationMessage> findBefore(@Param("conversationId") Long conversationId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * Messages newer than a cursor, oldest first.
+     */
+    @Query("SELECT m FROM ConversationMessage m JOIN FETCH m.sender " +
+           "WHERE m.conversation.id = :conversationId AND m.id > :afterId ORDER BY m.id ASC")
+    List<ConversationMessage> findAfter(@Param("conversationId") Long conversationId, @Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -1,25 +1,197 @@
 package com.Lostify.Lostify.repository;
 
+import com.Lostify.Lostify.dto.ConversationParticipants;
+import com.Lostify.Lostify.dto.ConversationReadState;
 import com.Lostify.Lostify.model.Conversation;
 import com.Lostify.Lostify.model.User;
 import com.Lostify.Lostify.model.Item;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
 
-    @Query("SELECT c FROM Conversation c WHERE (c.user1 = :user1 AND c.user2 = :user2 AND c.item = :item) OR (c.user1 = :user2 AND c.user2 = :user1 AND c.item = :item) ORDER BY c.createdAt ASC")
+    @Query("SELECT c FROM Conversation c WHERE (c.user1 = :user1 AND c.user2 = :user2 AND c.item = :item) OR (c.user1 = :user2 AND c.user2 = :user1 AND c.item = :item) ORDER BY c.id ASC")
     List<Conversation> findByUsersAndItem(@Param("user1") User user1, @Param("user2") User user2, @Param("item") Item item);
 
-    @Query("SELECT c FROM Conversation c WHERE (c.user1 = :user OR c.user2 = :user) ORDER BY c.lastMessageAt DESC")
-    List<Conversation> findByUserOrderByLastMessageAtDesc(@Param("user") User user);
+    /**
+     * Creates the conversation unless the unique (user1_id, user2_id, item_id) key already has
+     * it. The users must come in ascending id order.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversations (user1_id, user2_id, item_id, created_at, last_message_at, " +
+            "user1_unread_count, user2_unread_count, user1_last_read_id, user2_last_read_id) " +
+            "VALUES (:user1Id, :user2Id, :itemId, :now, :now, 0, 0, 0, 0) " +
+            "ON DUPLICATE KEY UPDATE id = id", nativeQuery = true)
+    int insertIfAbsent(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id,
+                       @Param("itemId") Long itemId, @Param("now") LocalDateTime now);
+
+    /**
+     * A locking read of the conversation with users in ascending id order, which also sees a row
+     * that another transaction committed after this one started.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Conversation c WHERE c.user1.id = :user1Id AND c.user2.id = :user2Id AND c.item.id = :itemId")
+    Optional<Conversation> lockByParticipants(@Param("user1Id") Long user1Id, @Param("user2Id") Long user2Id,
+                                              @Param("itemId") Long itemId);
 
     @Query("SELECT c FROM Conversation c WHERE c.item = :item ORDER BY c.lastMessageAt DESC")
     List<Conversation> findByItemOrderByLastMessageAtDesc(@Param("item") Item item);
-}
\ No newline at end of file
+
+    /**
+     * The conversations of an inbox page in one query, with everything their summaries show.
+     * Unordered; the page order comes from the inbox rows.
+     */
+    @Query("SELECT DISTINCT c FROM Conversation c JOIN FETCH c.user1 JOIN FETCH c.user2 " +
+           "JOIN FETCH c.item i LEFT JOIN FETCH i.user LEFT JOIN FETCH i.photoUrls LEFT JOIN FETCH c.lastSender " +
+           "WHERE c.id IN :ids")
+    List<Conversation> findInboxByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Who takes part in a conversation and which item it is about.
+     */
+    @Query("SELECT new com.Lostify.Lostify.dto.ConversationParticipants(c.id, c.user1.id, c.user2.id, c.item.id) " +
+           "FROM Conversation c WHERE c.id = :id")
+    Optional<ConversationParticipants> findParticipants(@Param("id") Long id);
+
+    /**
+     * Records a new message on the summary and counts it as unread for the other participant.
+     * The row lock taken here also orders it against a concurrent {@link #advanceReadWatermark}.
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET c.lastMessagePreview = :preview, c.lastSender = :sender, c.lastMessageAt = :sentAt, " +
+           "c.user1UnreadCount = c.user1UnreadCount + CASE WHEN c.user1 = :sender THEN 0 ELSE 1 END, " +
+           "c.user2UnreadCount = c.user2UnreadCount + CASE WHEN c.user2 = :sender THEN 0 ELSE 1 END " +
+           "WHERE c.id = :id")
+    int recordMessage(@Param("id") Long id, @Param("sender") User sender,
+                      @Param("preview") String preview, @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Participants and read watermarks, for deriving the read state of messages.
+     */
+    @Query("SELECT new com.Lostify.Lostify.dto.ConversationReadState(c.user1.id, c.user2.id, c.user1LastReadId, c.user2LastReadId) " +
+           "FROM Conversation c WHERE c.id = :id")
+    Optional<ConversationReadState> findReadState(@Param("id") Long id);
+
+    /**
+     * The user's unread count in one conversation, locking the row until the transaction ends.
+     * Null if the user takes no part in it.
+     */
+    @Query(value = "SELECT CASE WHEN c.user1_id = :userId THEN c.user1_unread_count ELSE c.user2_unread_count END " +
+            "FROM conversations c WHERE c.id = :id AND (c.user1_id = :userId OR c.user2_id = :userId) FOR UPDATE",
+            nativeQuery = true)
+    Integer lockUnreadCount(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Total unread messages of a user across all conversations.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN c.user1.id = :userId THEN c.user1UnreadCount ELSE c.user2UnreadCount END), 0) " +
+           "FROM Conversation c WHERE c.user1.id = :userId OR c.user2.id = :userId")
+    long sumUnreadCount(@Param("userId") Long userId);
+
+    /**
+     * Unread totals of several users, as (user id, total) rows; users without conversations are absent.
+     */
+    @Query(value = "SELECT t.user_id, SUM(t.unread) FROM (" +
+            "SELECT user1_id AS user_id, user1_unread_count AS unread FROM conversations WHERE user1_id IN (:userIds) " +
+            "UNION ALL " +
+            "SELECT user2_id AS user_id, user2_unread_count AS unread FROM conversations WHERE user2_id IN (:userIds)" +
+            ") t GROUP BY t.user_id", nativeQuery = true)
+    List<Object[]> sumUnreadCounts(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Moves the user's read watermark forward to {@code lastReadId} and recounts what is left
+     * unread above it. Returns 0 if the user takes no part or has already read that far.
+     * The row lock orders it against a concurrent {@link #recordMessage}.
+     */
+    @Modifying
+    @Query("UPDATE Conversation c SET " +
+           "c.user1LastReadId = CASE WHEN c.user1.id = :userId THEN :lastReadId ELSE c.user1LastReadId END, " +
+           "c.user2LastReadId = CASE WHEN c.user2.id = :userId THEN :lastReadId ELSE c.user2LastReadId END, " +
+           "c.user1UnreadCount = CASE WHEN c.user1.id = :userId THEN (SELECT COUNT(m) FROM ConversationMessage m " +
+           "WHERE m.conversation.id = :id AND m.id > :lastReadId AND m.sender.id <> :userId) ELSE c.user1UnreadCount END, " +
+           "c.user2UnreadCount = CASE WHEN c.user2.id = :userId THEN (SELECT COUNT(m) FROM ConversationMessage m " +
+           "WHERE m.conversation.id = :id AND m.id > :lastReadId AND m.sender.id <> :userId) ELSE c.user2UnreadCount END " +
+           "WHERE c.id = :id AND ((c.user1.id = :userId AND c.user1LastReadId < :lastReadId) " +
+           "OR (c.user2.id = :userId AND c.user2LastReadId < :lastReadId))")
+    int advanceReadWatermark(@Param("id") Long id, @Param("userId") Long userId, @Param("lastReadId") long lastReadId);
+
+    /**
+     * Fills the summary of conversations that have messages from before it was kept.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations c SET " +
+            "last_message_preview = (SELECT SUBSTRING(m.content, 1, " + Conversation.PREVIEW_LENGTH + ") FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id ORDER BY m.id DESC LIMIT 1), " +
+            "last_sender_id = (SELECT m.sender_id FROM conversation_messages m WHERE m.conversation_id = c.id ORDER BY m.id DESC LIMIT 1), " +
+            "user1_unread_count = (SELECT COUNT(*) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user1_id AND m.is_read = false), " +
+            "user2_unread_count = (SELECT COUNT(*) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user2_id AND m.is_read = false) " +
+            "WHERE c.last_sender_id IS NULL " +
+            "AND EXISTS (SELECT 1 FROM conversation_messages m WHERE m.conversation_id = c.id)",
+            nativeQuery = true)
+    int backfillSummaries();
+
+    /**
+     * Derives read watermarks from the per-message read flags of conversations that predate them.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations c SET " +
+            "user1_last_read_id = COALESCE((SELECT MAX(m.id) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user1_id AND m.is_read = true), 0), " +
+            "user2_last_read_id = COALESCE((SELECT MAX(m.id) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user2_id AND m.is_read = true), 0) " +
+            "WHERE c.user1_last_read_id = 0 AND c.user2_last_read_id = 0 " +
+            "AND EXISTS (SELECT 1 FROM conversation_messages m WHERE m.conversation_id = c.id AND m.is_read = true)",
+            nativeQuery = true)
+    int backfillReadWatermarks();
+
+    /**
+     * Conversations that duplicate an older one of the same users (in either order) and item,
+     * as (duplicate id, id of the oldest conversation) rows.
+     */
+    @Query(value = "SELECT c.id, (SELECT MIN(k.id) FROM conversations k WHERE k.item_id = c.item_id " +
+            "AND ((k.user1_id = c.user1_id AND k.user2_id = c.user2_id) OR (k.user1_id = c.user2_id AND k.user2_id = c.user1_id))) " +
+            "FROM conversations c WHERE EXISTS (SELECT 1 FROM conversations k WHERE k.item_id = c.item_id AND k.id < c.id " +
+            "AND ((k.user1_id = c.user1_id AND k.user2_id = c.user2_id) OR (k.user1_id = c.user2_id AND k.user2_id = c.user1_id))) " +
+            "ORDER BY c.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findDuplicates(@Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE conversation_messages SET conversation_id = :targetId WHERE conversation_id IN (:sourceIds)",
+            nativeQuery = true)
+    int moveMessages(@Param("sourceIds") Collection<Long> sourceIds, @Param("targetId") Long targetId);
+
+    /**
+     * Sets both read watermarks and recomputes the summary and unread counts from the messages.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversations c SET " +
+            "user1_last_read_id = :user1LastReadId, user2_last_read_id = :user2LastReadId, " +
+            "last_message_preview = (SELECT SUBSTRING(m.content, 1, " + Conversation.PREVIEW_LENGTH + ") FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id ORDER BY m.id DESC LIMIT 1), " +
+            "last_sender_id = (SELECT m.sender_id FROM conversation_messages m WHERE m.conversation_id = c.id ORDER BY m.id DESC LIMIT 1), " +
+            "last_message_at = COALESCE((SELECT MAX(m.sent_at) FROM conversation_messages m WHERE m.conversation_id = c.id), c.last_message_at), " +
+            "user1_unread_count = (SELECT COUNT(*) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user1_id AND m.id > :user1LastReadId), " +
+            "user2_unread_count = (SELECT COUNT(*) FROM conversation_messages m " +
+            "WHERE m.conversation_id = c.id AND m.sender_id <> c.user2_id AND m.id > :user2LastReadId) " +
+            "WHERE c.id = :id", nativeQuery = true)
+    int rebuildSummary(@Param("id") Long id, @Param("user1LastReadId") long user1LastReadId,
+                       @Param("user2LastReadId") long user2LastReadId);
+
+    @Modifying
+    @Query("DELETE FROM Conversation c WHERE c.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,40 @@
+package com.Lostify.Lostify.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Encodes the (lastMessageAt, conversationId) keyset of the last conversation on an inbox page
+ * as an opaque, URL-safe token.
+ */
+public record InboxCursor(LocalDateTime lastMessageAt, Long conversationId) {
+
+    private static final String VERSION = "v1";
+
+    public String encode() {
+        // The timestamp goes last, it contains colons itself
+        String raw = VERSION + ":" + conversationId + ":" + lastMessageAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the decoded keyset, or null for a null or blank cursor (the first page).
+     */
+    public static InboxCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new InboxCursor(LocalDateTime.parse(parts[2]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
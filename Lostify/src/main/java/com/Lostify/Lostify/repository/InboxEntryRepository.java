@@ -0,0 +1,73 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.model.InboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The per-participant inbox rows. Conversations and their inbox rows are created, updated and
+ * removed in the same transaction.
+ */
+@Repository
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, InboxEntry.Key> {
+
+    @Query("SELECT e FROM InboxEntry e WHERE e.userId = :userId ORDER BY e.lastMessageAt DESC, e.conversationId DESC")
+    List<InboxEntry> findLatest(@Param("userId") Long userId, Pageable pageable);
+
+    /**
+     * The entries after the given one in inbox order, most recent first.
+     */
+    @Query("SELECT e FROM InboxEntry e WHERE e.userId = :userId AND (e.lastMessageAt < :lastMessageAt " +
+           "OR (e.lastMessageAt = :lastMessageAt AND e.conversationId < :conversationId)) " +
+           "ORDER BY e.lastMessageAt DESC, e.conversationId DESC")
+    List<InboxEntry> findBefore(@Param("userId") Long userId, @Param("lastMessageAt") LocalDateTime lastMessageAt,
+                                @Param("conversationId") Long conversationId, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO user_inbox (user_id, conversation_id, last_message_at) " +
+            "VALUES (:userId, :conversationId, :lastMessageAt) ON DUPLICATE KEY UPDATE user_id = user_id",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("conversationId") Long conversationId,
+                       @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * Moves the conversation to the top of both participants' inboxes.
+     */
+    @Modifying
+    @Query("UPDATE InboxEntry e SET e.lastMessageAt = :lastMessageAt WHERE e.conversationId = :conversationId")
+    int touch(@Param("conversationId") Long conversationId, @Param("lastMessageAt") LocalDateTime lastMessageAt);
+
+    /**
+     * Copies lastMessageAt from the conversation again, after it was recomputed.
+     */
+    @Modifying
+    @Query(value = "UPDATE user_inbox i SET last_message_at = " +
+            "(SELECT c.last_message_at FROM conversations c WHERE c.id = i.conversation_id) " +
+            "WHERE i.conversation_id = :conversationId", nativeQuery = true)
+    int resync(@Param("conversationId") Long conversationId);
+
+    @Modifying
+    @Query("DELETE FROM InboxEntry e WHERE e.conversationId IN :conversationIds")
+    int deleteByConversationIds(@Param("conversationIds") Collection<Long> conversationIds);
+
+    /**
+     * Adds the missing inbox rows of conversations that predate the inbox table.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_inbox (user_id, conversation_id, last_message_at) " +
+            "SELECT t.user_id, t.id, t.last_message_at FROM (" +
+            "SELECT user1_id AS user_id, id, last_message_at FROM conversations " +
+            "UNION ALL " +
+            "SELECT user2_id AS user_id, id, last_message_at FROM conversations WHERE user2_id <> user1_id" +
+            ") t WHERE NOT EXISTS (SELECT 1 FROM user_inbox i WHERE i.user_id = t.user_id AND i.conversation_id = t.id)",
+            nativeQuery = true)
+    int backfill();
+}
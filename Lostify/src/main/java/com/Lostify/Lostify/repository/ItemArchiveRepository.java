@@ -0,0 +1,99 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.dto.ItemVersion;
+import com.Lostify.Lostify.model.ArchivedItem;
+import com.Lostify.Lostify.model.PhotoVariant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Set-based moves of items, their photos and their conversations into the archive tables.
+ * Every statement takes the ids of one archive batch and must run in the caller's transaction,
+ * copies first and deletes afterwards (children before parents).
+ */
+@Repository
+public interface ItemArchiveRepository extends JpaRepository<ArchivedItem, Long> {
+
+    @Query("SELECT a FROM ArchivedItem a LEFT JOIN FETCH a.photoUrls WHERE a.id = :id")
+    Optional<ArchivedItem> findWithPhotosById(@Param("id") Long id);
+
+    // Separate from findWithPhotosById; two list collections cannot be fetched in one query
+    @Query("SELECT v FROM ArchivedItem a JOIN a.photoVariants v WHERE a.id = :id")
+    List<PhotoVariant> findPhotoVariantsById(@Param("id") Long id);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemVersion(a.id, a.version, a.lastModified, a.dateReported) " +
+           "FROM ArchivedItem a WHERE a.id = :id")
+    Optional<ItemVersion> findVersionById(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_items (id, name, description, category, status, date_reported, location, " +
+                   "location_normalized, latitude, longitude, university_id, user_id, image_url, contact_phone, " +
+                   "contact_email, version, last_modified, archived_at) " +
+                   "SELECT id, name, description, category, status, date_reported, location, location_normalized, " +
+                   "latitude, longitude, university_id, user_id, image_url, contact_phone, contact_email, version, " +
+                   "last_modified, CURRENT_TIMESTAMP FROM items WHERE id IN (:ids)", nativeQuery = true)
+    int copyItems(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_item_photos (item_id, photo_url) " +
+                   "SELECT item_id, photo_url FROM item_photos WHERE item_id IN (:ids)", nativeQuery = true)
+    int copyPhotos(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_item_photo_variants (item_id, original_url, thumbnail_url, medium_url) " +
+                   "SELECT item_id, original_url, thumbnail_url, medium_url FROM item_photo_variants " +
+                   "WHERE item_id IN (:ids)", nativeQuery = true)
+    int copyPhotoVariants(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_conversations (id, user1_id, user2_id, item_id, created_at, last_message_at, archived_at) " +
+                   "SELECT id, user1_id, user2_id, item_id, created_at, last_message_at, CURRENT_TIMESTAMP " +
+                   "FROM conversations WHERE item_id IN (:ids)", nativeQuery = true)
+    int copyConversations(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "INSERT INTO archived_conversation_messages (id, conversation_id, sender_id, content, sent_at, is_read) " +
+                   "SELECT m.id, m.conversation_id, m.sender_id, m.content, m.sent_at, " +
+                   "m.is_read OR m.id <= CASE WHEN m.sender_id = c.user1_id THEN c.user2_last_read_id ELSE c.user1_last_read_id END " +
+                   "FROM conversation_messages m JOIN conversations c ON c.id = m.conversation_id " +
+                   "WHERE c.item_id IN (:ids)", nativeQuery = true)
+    int copyMessages(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM conversation_messages WHERE conversation_id IN " +
+                   "(SELECT id FROM conversations WHERE item_id IN (:ids))", nativeQuery = true)
+    int deleteMessages(@Param("ids") Collection<Long> ids);
+
+    // Inbox rows are derived from the conversations and are not archived
+    @Modifying
+    @Query(value = "DELETE FROM user_inbox WHERE conversation_id IN " +
+                   "(SELECT id FROM conversations WHERE item_id IN (:ids))", nativeQuery = true)
+    int deleteInboxEntries(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM conversations WHERE item_id IN (:ids)", nativeQuery = true)
+    int deleteConversations(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM item_matches WHERE item_id IN (:ids) OR candidate_id IN (:ids)", nativeQuery = true)
+    int deleteMatches(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM item_photos WHERE item_id IN (:ids)", nativeQuery = true)
+    int deletePhotos(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM item_photo_variants WHERE item_id IN (:ids)", nativeQuery = true)
+    int deletePhotoVariants(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value = "DELETE FROM items WHERE id IN (:ids)", nativeQuery = true)
+    int deleteItems(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,55 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.model.ItemMatch;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ItemMatchRepository extends JpaRepository<ItemMatch, Long> {
+
+    @Query("SELECT m.candidate.id FROM ItemMatch m WHERE m.item.id = :itemId ORDER BY m.score DESC")
+    List<Long> findTopCandidateIds(@Param("itemId") Long itemId, Pageable pageable);
+
+    @Query("SELECT m FROM ItemMatch m WHERE m.item.id = :itemId ORDER BY m.score DESC")
+    List<ItemMatch> findByItemIdOrderByScoreDesc(@Param("itemId") Long itemId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ItemMatch m WHERE m.item.id = :itemId OR m.candidate.id = :itemId")
+    int deleteAllInvolving(@Param("itemId") Long itemId);
+
+    /**
+     * Writes one direction of a pair, replacing the score if the pair is already stored.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO item_matches (item_id, candidate_id, score, computed_at) " +
+            "VALUES (:itemId, :candidateId, :score, :computedAt) " +
+            "ON DUPLICATE KEY UPDATE score = :score, computed_at = :computedAt", nativeQuery = true)
+    int upsert(@Param("itemId") Long itemId, @Param("candidateId") Long candidateId,
+               @Param("score") double score, @Param("computedAt") LocalDateTime computedAt);
+
+    /**
+     * Deletes both directions of every pair of the item whose other item is not in {@code keepIds}.
+     */
+    @Modifying
+    @Query("DELETE FROM ItemMatch m WHERE (m.item.id = :itemId AND m.candidate.id NOT IN :keepIds) " +
+           "OR (m.candidate.id = :itemId AND m.item.id NOT IN :keepIds)")
+    int deleteAllInvolvingExcept(@Param("itemId") Long itemId, @Param("keepIds") Collection<Long> keepIds);
+
+    /**
+     * Deletes both directions of the pairs between the item and each of {@code otherIds}.
+     */
+    @Modifying
+    @Query("DELETE FROM ItemMatch m WHERE (m.item.id = :itemId AND m.candidate.id IN :otherIds) " +
+           "OR (m.candidate.id = :itemId AND m.item.id IN :otherIds)")
+    int deletePairs(@Param("itemId") Long itemId, @Param("otherIds") Collection<Long> otherIds);
+}
@@ -1,34 +1,118 @@
 package com.Lostify.Lostify.repository;
 
-import com.Lostify.Lostify.domain.ItemCategory;
 import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.FacetCount;
+import com.Lostify.Lostify.dto.ItemGeoPoint;
+import com.Lostify.Lostify.dto.ItemPhotoHash;
+import com.Lostify.Lostify.dto.ItemIndexRow;
+import com.Lostify.Lostify.dto.ItemVersion;
+import com.Lostify.Lostify.dto.LocationCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.Lostify.Lostify.model.Item;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSummaryRepository {
 
-    List<Item> findByCategory(ItemCategory category);
+    @Query("SELECT i FROM Item i LEFT JOIN FETCH i.user LEFT JOIN FETCH i.university WHERE i.id = :id")
+    Optional<Item> findByIdWithUser(@Param("id") Long id);
 
-    List<Item> findByStatus(ItemStatus status);
+    @Query("SELECT p FROM Item i JOIN i.photoUrls p WHERE i.id = :id")
+    List<String> findPhotoUrlsById(@Param("id") Long id);
 
+    /**
+     * Items past {@code afterId} with uploaded photos but no variants, last changed before {@code modifiedBefore},
+     * leaving out those whose photos could not be processed.
+     */
+    @Query("SELECT DISTINCT i.id FROM Item i JOIN i.photoUrls p WHERE i.id > :afterId AND p LIKE '/uploads/%' " +
+           "AND i.photoVariants IS EMPTY AND i.photoVariantsFailedAt IS NULL AND i.lastModified < :modifiedBefore " +
+           "ORDER BY i.id")
+    List<Long> findIdsMissingPhotoVariants(@Param("afterId") Long afterId,
+                                           @Param("modifiedBefore") Instant modifiedBefore,
+                                           Pageable pageable);
 
-    List<Item> findByCategoryAndStatus(ItemCategory category, ItemStatus status);
-    
-    List<Item> findByUniversityId(Long universityId);
-    
-    List<Item> findByUniversityIdAndCategory(Long universityId, ItemCategory category);
-    
-    List<Item> findByUniversityIdAndStatus(Long universityId, ItemStatus status);
-    
-    List<Item> findByUniversityIdAndCategoryAndStatus(Long universityId, ItemCategory category, ItemStatus status);
-    
-    @Query("SELECT i FROM Item i LEFT JOIN FETCH i.user LEFT JOIN FETCH i.university WHERE i.id = :id")
-    Optional<Item> findByIdWithUser(@Param("id") Long id);
+    // A bulk update, so neither the version nor lastModified of the item changes
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.photoVariantsFailedAt = :failedAt WHERE i.id = :id")
+    int markPhotoVariantsFailed(@Param("id") Long id, @Param("failedAt") Instant failedAt);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemIndexRow(i.id, i.university.id, i.category, i.status, i.name, i.description, i.location, i.dateReported) " +
+           "FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<ItemIndexRow> findIndexRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemIndexRow(i.id, i.university.id, i.category, i.status, i.name, i.description, i.location, i.dateReported) " +
+           "FROM Item i WHERE i.id IN :ids")
+    List<ItemIndexRow> findIndexRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The given items that still exist, share-locked until the transaction ends so
+     * none of them can be deleted meanwhile.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids")
+    List<Item> lockAllById(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> lockById(@Param("id") Long id);
+
+    // Rows of id and location, for items written before the normalized column existed
+    @Query("SELECT i.id, i.location FROM Item i WHERE i.id > :afterId AND i.locationNormalized IS NULL ORDER BY i.id")
+    List<Object[]> findUnnormalizedLocationsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Item i SET i.locationNormalized = :normalized WHERE i.id = :id")
+    int setNormalizedLocation(@Param("id") Long id, @Param("normalized") String normalized);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.LocationCount(i.university.id, i.locationNormalized, MIN(i.location), COUNT(i)) " +
+           "FROM Item i GROUP BY i.university.id, i.locationNormalized")
+    List<LocationCount> countByUniversityAndLocation();
+
+    @Query("SELECT new com.Lostify.Lostify.dto.FacetCount(i.university.id, i.category, i.status, COUNT(i)) " +
+           "FROM Item i GROUP BY i.university.id, i.category, i.status")
+    List<FacetCount> countByUniversityCategoryAndStatus();
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemGeoPoint(i.id, i.university.id, i.status, i.latitude, i.longitude) " +
+           "FROM Item i WHERE i.latitude IS NOT NULL AND i.longitude IS NOT NULL")
+    List<ItemGeoPoint> findGeoPoints();
+
+    @Query("SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.photoUrls " +
+           "WHERE i.id IN (SELECT j.id FROM Item j JOIN j.photoUrls p WHERE p IN :photoUrls)")
+    List<Item> findAllWithPhotoUrlIn(@Param("photoUrls") Collection<String> photoUrls);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemPhotoHash(i.id, i.university.id, i.status, b.dhash) " +
+           "FROM Item i JOIN i.photoUrls p, PhotoBlob b " +
+           "WHERE p = CONCAT('/uploads/', b.filename) AND b.dhash IS NOT NULL")
+    List<ItemPhotoHash> findPhotoHashes();
+
+    /**
+     * Items due for the archive: RETURNED items untouched since {@code returnedBefore}
+     * (by report date for rows without lastModified), and anything reported before {@code reportedBefore}.
+     */
+    @Query("SELECT i.id FROM Item i WHERE (i.status = :returned AND (i.lastModified < :returnedBefore " +
+           "OR (i.lastModified IS NULL AND i.dateReported < :returnedBeforeDate))) " +
+           "OR i.dateReported < :reportedBefore ORDER BY i.id")
+    List<Long> findArchivableIds(@Param("returned") ItemStatus returned,
+                                 @Param("returnedBefore") Instant returnedBefore,
+                                 @Param("returnedBeforeDate") LocalDate returnedBeforeDate,
+                                 @Param("reportedBefore") LocalDate reportedBefore,
+                                 Pageable pageable);
+
+    @Query("SELECT new com.Lostify.Lostify.dto.ItemVersion(i.id, i.version, i.lastModified, i.dateReported) " +
+           "FROM Item i WHERE i.id = :id")
+    Optional<ItemVersion> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,53 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.model.Item;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the single item listing query from any combination of filters.
+ * Every combination has a matching composite index on the items table
+ * (equality columns first, then date_reported, id), see {@link Item}.
+ */
+public final class ItemSpecifications {
+
+    private ItemSpecifications() {
+    }
+
+    public static Specification<Item> matching(ItemFilter filter) {
+        return (root, query, cb) -> {
+            // Fetch the to-one associations in the same statement when selecting entities;
+            // count and projection queries must not fetch
+            if (query != null && Item.class.equals(query.getResultType())) {
+                root.fetch("user", JoinType.INNER);
+                root.fetch("university", JoinType.INNER);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getUniversityId() != null) {
+                predicates.add(cb.equal(root.get("university").get("id"), filter.getUniversityId()));
+            }
+            if (filter.getCategory() != null) {
+                predicates.add(cb.equal(root.get("category"), filter.getCategory()));
+            }
+            if (filter.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filter.getStatus()));
+            }
+            if (filter.getReportedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateReported"), filter.getReportedFrom()));
+            }
+            if (filter.getReportedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateReported"), filter.getReportedTo()));
+            }
+            if (filter.getLocation() != null && !filter.getLocation().isBlank()) {
+                predicates.add(cb.equal(root.get("locationNormalized"), Item.normalizeLocation(filter.getLocation())));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
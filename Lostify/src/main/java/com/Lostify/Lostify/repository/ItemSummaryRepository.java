@@ -0,0 +1,22 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * List queries that return {@link ItemSummary} projections instead of managed entities.
+ */
+public interface ItemSummaryRepository {
+
+    ItemPage<ItemSummary> findSummaries(ItemFilter filter, ItemPageRequest pageRequest);
+
+    /**
+     * Returns the summaries of the given items in no particular order. Unknown ids are skipped.
+     */
+    List<ItemSummary> findSummariesByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,132 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.model.University;
+import com.Lostify.Lostify.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds item summaries with one joined row query and one batched IN query for item_photos,
+ * so list latency depends on the page size and not on the number of associations.
+ */
+public class ItemSummaryRepositoryImpl implements ItemSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public ItemPage<ItemSummary> findSummaries(ItemFilter filter, ItemPageRequest pageRequest) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemSummary> query = cb.createQuery(ItemSummary.class);
+        Root<Item> item = query.from(Item.class);
+        select(query, item, cb);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(ItemSpecifications.matching(filter).toPredicate(item, query, cb));
+
+        Path<LocalDate> dateReported = item.get("dateReported");
+        Path<Long> id = item.get("id");
+        ItemCursor after = ItemCursor.decode(pageRequest.getCursor());
+        if (after != null) {
+            LocalDate lastDate = after.dateReported();
+            Long lastId = after.id();
+            predicates.add(pageRequest.isOldestFirst()
+                    ? cb.or(cb.greaterThan(dateReported, lastDate),
+                            cb.and(cb.equal(dateReported, lastDate), cb.greaterThan(id, lastId)))
+                    : cb.or(cb.lessThan(dateReported, lastDate),
+                            cb.and(cb.equal(dateReported, lastDate), cb.lessThan(id, lastId))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(pageRequest.isOldestFirst()
+                ? List.of(cb.asc(dateReported), cb.asc(id))
+                : List.of(cb.desc(dateReported), cb.desc(id)));
+
+        // Read one extra row to learn whether another page exists
+        List<ItemSummary> rows = entityManager.createQuery(query)
+                .setMaxResults(pageRequest.getSize() + 1)
+                .getResultList();
+
+        String nextCursor = null;
+        if (rows.size() > pageRequest.getSize()) {
+            rows = new ArrayList<>(rows.subList(0, pageRequest.getSize()));
+            ItemSummary last = rows.get(rows.size() - 1);
+            nextCursor = new ItemCursor(last.getDateReported(), last.getId()).encode();
+        }
+        attachPhotos(rows);
+        return new ItemPage<>(rows, nextCursor);
+    }
+
+    @Override
+    public List<ItemSummary> findSummariesByIdIn(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ItemSummary> query = cb.createQuery(ItemSummary.class);
+        Root<Item> item = query.from(Item.class);
+        select(query, item, cb);
+        query.where(item.get("id").in(ids));
+
+        List<ItemSummary> rows = entityManager.createQuery(query).getResultList();
+        attachPhotos(rows);
+        return rows;
+    }
+
+    private static void select(CriteriaQuery<ItemSummary> query, Root<Item> item, CriteriaBuilder cb) {
+        Join<Item, User> user = item.join("user");
+        Join<Item, University> university = item.join("university");
+        query.select(cb.construct(ItemSummary.class,
+                item.get("id"),
+                item.get("name"),
+                item.get("description"),
+                item.get("category"),
+                item.get("status"),
+                item.get("dateReported"),
+                item.get("location"),
+                item.get("latitude"),
+                item.get("longitude"),
+                university.get("id"),
+                university.get("name"),
+                item.get("imageUrl"),
+                item.get("contactPhone"),
+                item.get("contactEmail"),
+                user.get("id"),
+                user.get("username"),
+                user.get("email"),
+                user.get("phoneNumber")));
+    }
+
+    private void attachPhotos(List<ItemSummary> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Map<Long, ItemSummary> byId = new HashMap<>();
+        rows.forEach(row -> byId.put(row.getId(), row));
+
+        List<Object[]> photos = entityManager.createQuery(
+                        "SELECT i.id, p FROM Item i JOIN i.photoUrls p WHERE i.id IN :ids", Object[].class)
+                .setParameter("ids", byId.keySet())
+                .getResultList();
+        for (Object[] photo : photos) {
+            byId.get((Long) photo[0]).getPhotoUrls().add((String) photo[1]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.Lostify.Lostify.repository;
+
+import com.Lostify.Lostify.model.PhotoBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PhotoBlobRepository extends JpaRepository<PhotoBlob, String> {
+
+    /**
+     * Adds {@code delta} to a blob's reference count, never going below zero, and starts or
+     * clears its grace period accordingly.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET " +
+           "b.unreferencedSince = CASE WHEN b.refCount + :delta > 0 THEN NULL ELSE :now END, " +
+           "b.refCount = CASE WHEN b.refCount + :delta > 0 THEN b.refCount + :delta ELSE 0 END " +
+           "WHERE b.filename = :filename")
+    int adjustRefCount(@Param("filename") String filename, @Param("delta") int delta, @Param("now") Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = :refCount, b.unreferencedSince = NULL WHERE b.filename = :filename")
+    int setRefCount(@Param("filename") String filename, @Param("refCount") int refCount);
+
+    @Query("SELECT b.filename FROM PhotoBlob b WHERE b.refCount = 0 AND b.unreferencedSince < :before " +
+           "ORDER BY b.unreferencedSince")
+    List<String> findUnreferenced(@Param("before") Instant before, Pageable pageable);
+
+    /**
+     * Removes the row only if it is still unreferenced and past its grace period, so a blob
+     * that was uploaded or referenced again in the meantime survives.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM PhotoBlob b WHERE b.filename = :filename AND b.refCount = 0 AND b.unreferencedSince < :before")
+    int deleteIfUnreferenced(@Param("filename") String filename, @Param("before") Instant before);
+
+    @Query("SELECT b.filename FROM PhotoBlob b WHERE b.dhash IS NULL AND b.filename > :afterFilename ORDER BY b.filename")
+    List<String> findFilenamesWithoutHash(@Param("afterFilename") String afterFilename, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.dhash = :dhash WHERE b.filename = :filename AND b.dhash IS NULL")
+    int setDhash(@Param("filename") String filename, @Param("dhash") long dhash);
+
+    @Query("SELECT b.filename FROM PhotoBlob b WHERE b.filename IN :filenames")
+    List<String> findExisting(@Param("filenames") Collection<String> filenames);
+
+    /**
+     * Which of the given upload URLs are still used by a live or archived item,
+     * as a photo, one of its variants or its cover image.
+     */
+    @Query(value = "SELECT photo_url FROM item_photos WHERE photo_url IN (:urls) " +
+                   "UNION SELECT photo_url FROM archived_item_photos WHERE photo_url IN (:urls) " +
+                   "UNION SELECT thumbnail_url FROM item_photo_variants WHERE thumbnail_url IN (:urls) " +
+                   "UNION SELECT medium_url FROM item_photo_variants WHERE medium_url IN (:urls) " +
+                   "UNION SELECT thumbnail_url FROM archived_item_photo_variants WHERE thumbnail_url IN (:urls) " +
+                   "UNION SELECT medium_url FROM archived_item_photo_variants WHERE medium_url IN (:urls) " +
+                   "UNION SELECT image_url FROM items WHERE image_url IN (:urls) " +
+                   "UNION SELECT image_url FROM archived_items WHERE image_url IN (:urls)",
+           nativeQuery = true)
+    List<String> findReferencedUrls(@Param("urls") Collection<String> urls);
+
+    @Query(value = "SELECT (SELECT COUNT(*) FROM item_photos WHERE photo_url = :url) + " +
+                   "(SELECT COUNT(*) FROM archived_item_photos WHERE photo_url = :url)", nativeQuery = true)
+    long countReferences(@Param("url") String url);
+}
@@ -0,0 +1,86 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.dto.ConversationParticipants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers which conversation belongs to a pair of users and an item, and who takes part in
+ * a conversation, so sending a message needs no lookups. Bounded by size, least recently used out.
+ * <p>
+ * A conversation never changes its participants or item, so entries only go away when the
+ * conversation does: its item is deleted or archived, or it is merged into another.
+ */
+@Component
+public class ConversationCache {
+
+    private final int maxEntries;
+
+    // Both access-ordered and guarded by this
+    private final LinkedHashMap<Key, Long> ids = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<Long, ConversationParticipants> participants = new LinkedHashMap<>(64, 0.75f, true);
+
+    // Users in ascending id order, the same whichever of them asks
+    private record Key(Long lowUserId, Long highUserId, Long itemId) {
+
+        static Key of(Long userId, Long otherUserId, Long itemId) {
+            return userId <= otherUserId
+                    ? new Key(userId, otherUserId, itemId)
+                    : new Key(otherUserId, userId, itemId);
+        }
+    }
+
+    public ConversationCache(@Value("${messaging.cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public synchronized Long findId(Long userId, Long otherUserId, Long itemId) {
+        return ids.get(Key.of(userId, otherUserId, itemId));
+    }
+
+    public synchronized ConversationParticipants findParticipants(Long conversationId) {
+        return participants.get(conversationId);
+    }
+
+    public synchronized void put(ConversationParticipants conversation) {
+        ids.put(Key.of(conversation.user1Id(), conversation.user2Id(), conversation.itemId()), conversation.conversationId());
+        participants.put(conversation.conversationId(), conversation);
+        trim(ids);
+        trim(participants);
+    }
+
+    public synchronized void evict(Long conversationId) {
+        ConversationParticipants removed = participants.remove(conversationId);
+        if (removed != null) {
+            ids.remove(Key.of(removed.user1Id(), removed.user2Id(), removed.itemId()));
+        } else {
+            ids.values().removeIf(conversationId::equals);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemoval()) {
+            evictItem(event.item().getId());
+        }
+    }
+
+    private synchronized void evictItem(Long itemId) {
+        ids.keySet().removeIf(key -> key.itemId().equals(itemId));
+        participants.values().removeIf(conversation -> conversation.itemId().equals(itemId));
+    }
+
+    private void trim(LinkedHashMap<?, ?> entries) {
+        Iterator<? extends Map.Entry<?, ?>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.model.Conversation;
+import com.Lostify.Lostify.repository.ConversationMessageRepository;
+import com.Lostify.Lostify.repository.ConversationRepository;
+import com.Lostify.Lostify.repository.InboxEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges duplicate conversations, left over from before creation was an upsert, into the
+ * oldest conversation of the same users and item.
+ * <p>
+ * Messages are moved with one UPDATE per surviving conversation, which then has its read
+ * watermarks merged and its summary and inbox rows recomputed; the duplicates and their inbox
+ * rows are deleted. A merged watermark never passes a message that was unread in any of the
+ * merged conversations, so no unread message is lost, at the cost of some read messages above
+ * it counting as unread again.
+ * Runs on a schedule in small batches, each in its own transaction. Unread totals held in memory
+ * catch up at their next reconciliation.
+ */
+@Service
+public class ConversationCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationCompactor.class);
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMessageRepository messageRepository;
+    private final InboxEntryRepository inboxEntryRepository;
+    private final ConversationCache conversationCache;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public ConversationCompactor(ConversationRepository conversationRepository,
+                                 ConversationMessageRepository messageRepository,
+                                 InboxEntryRepository inboxEntryRepository,
+                                 ConversationCache conversationCache,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${messaging.compaction.enabled:true}") boolean enabled,
+                                 @Value("${messaging.compaction.batch-size:100}") int batchSize,
+                                 @Value("${messaging.compaction.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.conversationRepository = conversationRepository;
+        this.messageRepository = messageRepository;
+        this.inboxEntryRepository = inboxEntryRepository;
+        this.conversationCache = conversationCache;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${messaging.compaction.initial-delay-ms:300000}",
+               fixedDelayString = "${messaging.compaction.interval-ms:86400000}")
+    public void scheduledRun() {
+        if (enabled) {
+            compact();
+        }
+    }
+
+    /**
+     * Merges duplicates batch by batch until none are left or the per-run limit is reached.
+     * Returns the number of duplicates removed.
+     */
+    public int compact() {
+        int removed = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> merged = transactionTemplate.execute(status -> {
+                List<Object[]> rows = conversationRepository.findDuplicates(batchSize);
+                return rows.isEmpty() ? Collections.<Long>emptyList() : merge(rows);
+            });
+            if (merged == null || merged.isEmpty()) {
+                break;
+            }
+            merged.forEach(conversationCache::evict);
+            removed += merged.size();
+        }
+        if (removed > 0) {
+            logger.info("Merged {} duplicate conversations", removed);
+        }
+        return removed;
+    }
+
+    // Caller must hold a transaction; returns the ids of the deleted duplicates
+    private List<Long> merge(List<Object[]> rows) {
+        Map<Long, List<Long>> duplicatesByKeeper = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Long duplicateId = ((Number) row[0]).longValue();
+            Long keeperId = ((Number) row[1]).longValue();
+            duplicatesByKeeper.computeIfAbsent(keeperId, id -> new ArrayList<>()).add(duplicateId);
+        }
+
+        List<Long> removed = new ArrayList<>();
+        duplicatesByKeeper.forEach((keeperId, duplicateIds) -> {
+            Conversation keeper = conversationRepository.findById(keeperId).orElse(null);
+            if (keeper == null) {
+                return;
+            }
+            List<Conversation> group = new ArrayList<>(conversationRepository.findAllById(duplicateIds));
+            group.add(keeper);
+            long user1LastReadId = mergedWatermark(group, keeper.getUser1().getId());
+            long user2LastReadId = mergedWatermark(group, keeper.getUser2().getId());
+
+            conversationRepository.moveMessages(duplicateIds, keeperId);
+            conversationRepository.rebuildSummary(keeperId, user1LastReadId, user2LastReadId);
+            inboxEntryRepository.resync(keeperId);
+            inboxEntryRepository.deleteByConversationIds(duplicateIds);
+            conversationRepository.deleteAllByIdIn(duplicateIds);
+            removed.addAll(duplicateIds);
+        });
+        return removed;
+    }
+
+    // Just below the oldest unread message of any of the conversations, or the furthest watermark if all are read
+    private long mergedWatermark(List<Conversation> group, Long userId) {
+        long furthest = 0;
+        long firstUnreadId = Long.MAX_VALUE;
+        for (Conversation conversation : group) {
+            // Duplicates may list the users the other way round
+            long lastReadId = conversation.getUser1().getId().equals(userId)
+                    ? conversation.getUser1LastReadId() : conversation.getUser2LastReadId();
+            furthest = Math.max(furthest, lastReadId);
+            Long unreadId = messageRepository.findFirstUnreadId(conversation.getId(), userId, lastReadId).orElse(null);
+            if (unreadId != null) {
+                firstUnreadId = Math.min(firstUnreadId, unreadId);
+            }
+        }
+        return firstUnreadId == Long.MAX_VALUE ? furthest : firstUnreadId - 1;
+    }
+}
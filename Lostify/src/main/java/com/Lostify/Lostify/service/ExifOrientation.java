@@ -0,0 +1,137 @@
+package com.Lostify.Lostify.service;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * The EXIF Orientation tag of a JPEG, and the transform that turns the stored pixels upright.
+ * Cameras store portrait photos sideways and only set this tag, which re-encoded copies lose.
+ */
+final class ExifOrientation {
+
+    static final int NORMAL = 1;
+
+    private static final int ORIENTATION_TAG = 0x0112;
+    private static final int APP1 = 0xE1;
+    private static final int START_OF_SCAN = 0xDA;
+
+    private ExifOrientation() {
+    }
+
+    /**
+     * Orientation 1 to 8 from the first EXIF segment of a JPEG, or {@link #NORMAL} if there is none.
+     */
+    static int read(Path file) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (input.readUnsignedShort() != 0xFFD8) {
+                return NORMAL;
+            }
+            while (true) {
+                int marker = nextMarker(input);
+                if (marker == START_OF_SCAN || marker == 0xD9) {
+                    return NORMAL;
+                }
+                int length = input.readUnsignedShort() - 2;
+                if (length < 0) {
+                    return NORMAL;
+                }
+                if (marker != APP1) {
+                    input.skipNBytes(length);
+                    continue;
+                }
+                byte[] segment = input.readNBytes(length);
+                if (segment.length == length && isExif(segment)) {
+                    return orientation(ByteBuffer.wrap(segment, 6, segment.length - 6).slice());
+                }
+            }
+        } catch (IOException | BufferUnderflowException | IndexOutOfBoundsException e) {
+            // Unreadable or truncated metadata; show the pixels as stored
+            return NORMAL;
+        }
+    }
+
+    /**
+     * Returns the image as it should be displayed for the given orientation.
+     */
+    static BufferedImage apply(BufferedImage image, int orientation) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        // Maps stored coordinates to displayed ones
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return image;
+        }
+        boolean swapped = orientation >= 5;
+        int type = image.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : image.getType();
+        BufferedImage upright = new BufferedImage(swapped ? height : width, swapped ? width : height, type);
+        Graphics2D graphics = upright.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return upright;
+    }
+
+    // Skips fill bytes and returns the next marker code
+    private static int nextMarker(InputStream input) throws IOException {
+        int b;
+        do {
+            b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+        } while (b != 0xFF);
+        do {
+            b = input.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+        } while (b == 0xFF);
+        return b;
+    }
+
+    private static boolean isExif(byte[] segment) {
+        return segment.length > 14 && segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i'
+                && segment[3] == 'f' && segment[4] == 0 && segment[5] == 0;
+    }
+
+    // Looks the tag up in IFD0 of the TIFF structure that follows the EXIF header
+    private static int orientation(ByteBuffer tiff) {
+        if (tiff.get(0) == 'I' && tiff.get(1) == 'I') {
+            tiff.order(ByteOrder.LITTLE_ENDIAN);
+        } else if (tiff.get(0) != 'M' || tiff.get(1) != 'M') {
+            return NORMAL;
+        }
+        int ifd = tiff.getInt(4);
+        int entries = Short.toUnsignedInt(tiff.getShort(ifd));
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (Short.toUnsignedInt(tiff.getShort(entry)) == ORIENTATION_TAG) {
+                int value = Short.toUnsignedInt(tiff.getShort(entry + 8));
+                return value >= 1 && value <= 8 ? value : NORMAL;
+            }
+        }
+        return NORMAL;
+    }
+}
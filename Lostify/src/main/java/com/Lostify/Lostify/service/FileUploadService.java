@@ -1,7 +1,9 @@
 package com.Lostify.Lostify.service;
 
 import com.Lostify.Lostify.config.FileUploadConfig;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -9,18 +11,114 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Receives uploaded photos and hands them to the {@link PhotoStore}.
+ * <p>
+ * Several photos of one request are written concurrently on a small bounded pool, and either
+ * all of them are stored or none: if one write fails, the request gets no URLs and whatever
+ * was stored stays unreferenced, for the sweeper to remove.
+ */
 @Service
-@RequiredArgsConstructor
 public class FileUploadService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileUploadService.class);
+
+    private static final Map<String, String> EXTENSIONS = Map.of(
+            "image/jpeg", ".jpg",
+            "image/png", ".png",
+            "image/gif", ".gif",
+            "image/webp", ".webp");
+
     private final FileUploadConfig fileUploadConfig;
+    private final PhotoStore photoStore;
+    private final ThreadPoolExecutor executor;
+    private volatile Path uploadPath;
+
+    private record PendingUpload(MultipartFile file, Path temporary, String extension) {
+    }
+
+    public FileUploadService(FileUploadConfig fileUploadConfig, PhotoStore photoStore) {
+        this.fileUploadConfig = fileUploadConfig;
+        this.photoStore = photoStore;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(64),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "file-upload-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // The request waits for its files anyway, so under load it writes them itself
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
 
     public String uploadFile(MultipartFile file) throws IOException {
+        validate(file);
+        return write(prepare(file));
+    }
+
+    /**
+     * Validates every file before anything is written, then writes them concurrently.
+     * Returns the URLs in the order of the given files; empty parts are skipped.
+     */
+    public List<String> uploadMultipleFiles(List<MultipartFile> files) throws IOException {
+        List<PendingUpload> uploads = new ArrayList<>();
+        for (MultipartFile file : files) {
+            if (!file.isEmpty()) {
+                validate(file);
+                uploads.add(prepare(file));
+            }
+        }
+        if (uploads.size() == 1) {
+            return List.of(write(uploads.get(0)));
+        }
+
+        List<Future<String>> writes = new ArrayList<>(uploads.size());
+        for (PendingUpload upload : uploads) {
+            writes.add(executor.submit(() -> write(upload)));
+        }
+
+        // Wait for every write, even after a failure, so the request never returns while files are still moving
+        List<String> uploadedUrls = new ArrayList<>(uploads.size());
+        Throwable failure = null;
+        for (Future<String> write : writes) {
+            try {
+                uploadedUrls.add(write.get());
+            } catch (ExecutionException e) {
+                failure = failure == null ? e.getCause() : failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            if (failure instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to store uploaded files", failure);
+        }
+        return uploadedUrls;
+    }
+
+    private void validate(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("File is empty");
         }
@@ -35,52 +133,55 @@ public class FileUploadService {
         if (file.getSize() > fileUploadConfig.getMaxFileSize()) {
             throw new IllegalArgumentException("File size exceeds maximum allowed size");
         }
+    }
 
-        // Create upload directory if it doesn't exist
-        Path uploadPath = Paths.get(fileUploadConfig.getUploadDir());
-        if (!Files.exists(uploadPath)) {
-            Files.createDirectories(uploadPath);
+    private PendingUpload prepare(MultipartFile file) throws IOException {
+        // Same content should get the same name, so the extension follows the declared type
+        String extension = EXTENSIONS.get(file.getContentType());
+        if (extension == null) {
+            extension = "";
+            String originalFilename = file.getOriginalFilename();
+            if (originalFilename != null && originalFilename.contains(".")) {
+                String original = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase(Locale.ROOT);
+                if (original.matches("\\.[a-z0-9]{1,10}")) {
+                    extension = original;
+                }
+            }
         }
+        Path temporary = uploadPath().resolve(".upload-" + UUID.randomUUID() + ".tmp");
+        return new PendingUpload(file, temporary, extension);
+    }
 
-        // Generate unique filename
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
+    /**
+     * transferTo with an absolute File lets the container move its multipart temp file into
+     * place, or copy it through channels, instead of streaming it through a heap buffer.
+     * The store then hashes it and moves it to its content address.
+     */
+    private String write(PendingUpload upload) throws IOException {
+        try {
+            upload.file().transferTo(upload.temporary().toFile());
+            return photoStore.store(upload.temporary(), upload.extension());
+        } finally {
+            deleteQuietly(upload.temporary());
         }
-        String uniqueFilename = UUID.randomUUID().toString() + fileExtension;
-
-        // Save file
-        Path filePath = uploadPath.resolve(uniqueFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-
-        // Return the URL path
-        return "/uploads/" + uniqueFilename;
     }
 
-    public List<String> uploadMultipleFiles(List<MultipartFile> files) throws IOException {
-        List<String> uploadedUrls = new ArrayList<>();
-        
-        for (MultipartFile file : files) {
-            if (!file.isEmpty()) {
-                String url = uploadFile(file);
-                uploadedUrls.add(url);
-            }
+    // Created on first use and remembered, rather than checked for every file
+    private Path uploadPath() throws IOException {
+        Path path = uploadPath;
+        if (path == null) {
+            path = Paths.get(fileUploadConfig.getUploadDir()).toAbsolutePath().normalize();
+            Files.createDirectories(path);
+            uploadPath = path;
         }
-        
-        return uploadedUrls;
+        return path;
     }
 
-    public void deleteFile(String fileUrl) {
+    private static void deleteQuietly(Path target) {
         try {
-            if (fileUrl != null && fileUrl.startsWith("/uploads/")) {
-                String filename = fileUrl.substring("/uploads/".length());
-                Path filePath = Paths.get(fileUploadConfig.getUploadDir()).resolve(filename);
-                Files.deleteIfExists(filePath);
-            }
+            Files.deleteIfExists(target);
         } catch (IOException e) {
-            // Log error but don't throw exception
-            System.err.println("Error deleting file: " + fileUrl + " - " + e.getMessage());
+            logger.warn("Could not remove temporary upload {}: {}", target, e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,122 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.repository.ItemArchiveRepository;
+import com.Lostify.Lostify.repository.ItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moves RETURNED and aged items, with their photos and conversations, from the live tables
+ * into the archive tables, so live listings and indexes only cover the hot working set.
+ * <p>
+ * Runs on a schedule in small batches, each in its own transaction, so a run never holds
+ * locks on many rows at once and an interrupted run simply continues next time.
+ */
+@Service
+public class ItemArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemArchiver.class);
+
+    private final ItemRepository itemRepository;
+    private final ItemArchiveRepository itemArchiveRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int returnedAfterDays;
+    private final int reportedAfterDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public ItemArchiver(ItemRepository itemRepository,
+                        ItemArchiveRepository itemArchiveRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${item.archive.enabled:true}") boolean enabled,
+                        @Value("${item.archive.returned-after-days:30}") int returnedAfterDays,
+                        @Value("${item.archive.reported-after-days:180}") int reportedAfterDays,
+                        @Value("${item.archive.batch-size:100}") int batchSize,
+                        @Value("${item.archive.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.itemRepository = itemRepository;
+        this.itemArchiveRepository = itemArchiveRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.returnedAfterDays = returnedAfterDays;
+        this.reportedAfterDays = reportedAfterDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${item.archive.initial-delay-ms:600000}",
+               fixedDelayString = "${item.archive.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            archiveDueItems();
+        }
+    }
+
+    /**
+     * Archives due items batch by batch until none are left or the per-run limit is reached.
+     * Returns the number of items archived.
+     */
+    public int archiveDueItems() {
+        Instant returnedBefore = Instant.now().minus(Duration.ofDays(returnedAfterDays));
+        LocalDate returnedBeforeDate = LocalDate.now().minusDays(returnedAfterDays);
+        LocalDate reportedBefore = LocalDate.now().minusDays(reportedAfterDays);
+
+        int archived = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            Integer moved = transactionTemplate.execute(status -> {
+                List<Long> ids = itemRepository.findArchivableIds(ItemStatus.RETURNED, returnedBefore,
+                        returnedBeforeDate, reportedBefore, PageRequest.of(0, batchSize));
+                return ids.isEmpty() ? 0 : archive(ids);
+            });
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+        }
+        if (archived > 0) {
+            logger.info("Archived {} items", archived);
+        }
+        return archived;
+    }
+
+    // Caller must hold a transaction
+    private int archive(List<Long> ids) {
+        // Loaded for the change events, which the in-memory indexes need after commit
+        List<Item> items = itemRepository.findAllById(ids);
+
+        itemArchiveRepository.copyItems(ids);
+        itemArchiveRepository.copyPhotos(ids);
+        itemArchiveRepository.copyPhotoVariants(ids);
+        itemArchiveRepository.copyConversations(ids);
+        itemArchiveRepository.copyMessages(ids);
+
+        itemArchiveRepository.deleteMessages(ids);
+        itemArchiveRepository.deleteInboxEntries(ids);
+        itemArchiveRepository.deleteConversations(ids);
+        itemArchiveRepository.deleteMatches(ids);
+        itemArchiveRepository.deletePhotos(ids);
+        itemArchiveRepository.deletePhotoVariants(ids);
+        int deleted = itemArchiveRepository.deleteItems(ids);
+
+        items.forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.archived(item)));
+        return deleted;
+    }
+}
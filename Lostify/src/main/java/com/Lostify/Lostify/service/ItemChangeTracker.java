@@ -0,0 +1,61 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.dto.ItemListVersion;
+import com.Lostify.Lostify.model.Item;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-university change counters for item listings, bumped once an item change commits.
+ * Listings not scoped to a university follow a global counter that every change bumps.
+ * Counters live in memory, so the startup time is part of every version handed out.
+ */
+@Component
+public class ItemChangeTracker {
+
+    private final Instant startedAt = Instant.now();
+
+    private final Map<Long, ItemListVersion> versions = new ConcurrentHashMap<>();
+    private volatile ItemListVersion globalVersion = new ItemListVersion(startedAt.getEpochSecond(), 0, startedAt);
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        recordChange(item.getUniversity() != null ? item.getUniversity().getId() : null);
+    }
+
+    /**
+     * Bumps the counter of the university and the global one. A null university bumps every counter.
+     */
+    public void recordChange(Long universityId) {
+        Instant now = Instant.now();
+        if (universityId == null) {
+            versions.replaceAll((id, version) -> next(version, now));
+        } else {
+            versions.compute(universityId, (id, version) -> next(version, now));
+        }
+        synchronized (this) {
+            globalVersion = next(globalVersion, now);
+        }
+    }
+
+    /**
+     * Current version of a university's listings; null means the cross-university listing.
+     */
+    public ItemListVersion version(Long universityId) {
+        if (universityId == null) {
+            return globalVersion;
+        }
+        return versions.computeIfAbsent(universityId, id -> new ItemListVersion(startedAt.getEpochSecond(), 0, startedAt));
+    }
+
+    private ItemListVersion next(ItemListVersion version, Instant now) {
+        long generation = version == null ? 1 : version.generation() + 1;
+        return new ItemListVersion(startedAt.getEpochSecond(), generation, now);
+    }
+}
@@ -0,0 +1,232 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.FacetCount;
+import com.Lostify.Lostify.dto.ItemFacets;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Item counts per university by category and status, kept in memory so facet rendering
+ * never scans the items table. Seeded with one GROUP BY and adjusted after each committed change.
+ * <p>
+ * A recount builds fresh counters and swaps them in, so readers never see a partial count. It fixes
+ * its snapshot while no item change is between its commit and the update of the counters; changes
+ * applied after that are journaled and replayed onto the fresh counters before the swap, so none is
+ * lost or counted twice. The periodic recount only corrects changes made outside a transaction.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemFacetCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemFacetCounter.class);
+
+    private static final ItemCategory[] CATEGORIES = ItemCategory.values();
+    private static final ItemStatus[] STATUSES = ItemStatus.values();
+
+    private final ItemRepository itemRepository;
+
+    // universityId -> one counter per (category, status) cell
+    private volatile Map<Long, LongAdder[]> counters = new ConcurrentHashMap<>();
+    // Deltas applied since the running recount fixed its snapshot, null when none runs
+    private volatile Map<Long, LongAdder[]> journal;
+    // Read-held from just before an item change commits until its deltas are applied; a recount
+    // write-locks it to fix its snapshot and to replay and swap without a change landing in between
+    private final ReadWriteLock commitGate = new ReentrantReadWriteLock();
+
+    private TransactionTemplate snapshotTransaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshotTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        Map<Long, LongAdder[]> deltas = new ConcurrentHashMap<>();
+        List<FacetCount> counts;
+        try {
+            counts = snapshotTransaction.execute(status -> {
+                commitGate.writeLock().lock();
+                try {
+                    // The first read fixes the snapshot the GROUP BY below sees
+                    itemRepository.existsById(0L);
+                    journal = deltas;
+                } finally {
+                    commitGate.writeLock().unlock();
+                }
+                return itemRepository.countByUniversityCategoryAndStatus();
+            });
+        } catch (RuntimeException e) {
+            journal = null;
+            throw e;
+        }
+        Map<Long, LongAdder[]> fresh = new ConcurrentHashMap<>();
+        for (FacetCount count : counts) {
+            if (count.universityId() != null && count.category() != null && count.status() != null) {
+                add(fresh, count.universityId(), count.category(), count.status(), count.count());
+            }
+        }
+
+        commitGate.writeLock().lock();
+        try {
+            deltas.forEach((universityId, cells) -> {
+                LongAdder[] target = fresh.computeIfAbsent(universityId, id -> newCells());
+                for (int i = 0; i < cells.length; i++) {
+                    target[i].add(cells[i].sum());
+                }
+            });
+            counters = fresh;
+            journal = null;
+        } finally {
+            commitGate.writeLock().unlock();
+        }
+        logger.info("Facet counters seeded from {} groups, {} universities changed meanwhile",
+                counts.size(), deltas.size());
+    }
+
+    @Scheduled(initialDelayString = "${item.facets.recount-interval-ms:3600000}",
+               fixedDelayString = "${item.facets.recount-interval-ms:3600000}")
+    public void scheduledRecount() {
+        rebuild();
+    }
+
+    /**
+     * Holds the gate for the committing transaction, once however many items it changes.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void beforeItemChangeCommits(ItemChangedEvent event) {
+        if (TransactionSynchronizationManager.hasResource(commitGate)) {
+            return;
+        }
+        commitGate.readLock().lock();
+        TransactionSynchronizationManager.bindResource(commitGate, Boolean.TRUE);
+        // Runs after the afterCommit listeners, so the deltas are applied by then
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(commitGate);
+                commitGate.readLock().unlock();
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        if (item.getUniversity() == null || item.getCategory() == null) {
+            return;
+        }
+        Long universityId = item.getUniversity().getId();
+        // Already held after a commit; taken here for changes published outside a transaction
+        commitGate.readLock().lock();
+        try {
+            apply(event, universityId, item);
+        } finally {
+            commitGate.readLock().unlock();
+        }
+    }
+
+    private void apply(ItemChangedEvent event, Long universityId, Item item) {
+        switch (event.type()) {
+            case CREATED, IMPORTED -> add(universityId, item.getCategory(), item.getStatus(), 1);
+            case STATUS_CHANGED -> {
+                if (event.previousStatus() != item.getStatus()) {
+                    add(universityId, item.getCategory(), event.previousStatus(), -1);
+                    add(universityId, item.getCategory(), item.getStatus(), 1);
+                }
+            }
+            case DELETED, ARCHIVED -> add(universityId, item.getCategory(), event.previousStatus(), -1);
+        }
+    }
+
+    /**
+     * Current counts of the university, or of all universities when {@code universityId} is null.
+     * A status change is applied as two increments, so a concurrent reader may briefly see it half applied.
+     */
+    public ItemFacets facets(Long universityId) {
+        Map<Long, LongAdder[]> current = counters;
+        List<LongAdder[]> sources = new ArrayList<>();
+        if (universityId == null) {
+            sources.addAll(current.values());
+        } else if (current.containsKey(universityId)) {
+            sources.add(current.get(universityId));
+        }
+
+        Map<ItemCategory, Map<ItemStatus, Long>> counts = new EnumMap<>(ItemCategory.class);
+        Map<ItemCategory, Long> byCategory = new EnumMap<>(ItemCategory.class);
+        Map<ItemStatus, Long> byStatus = new EnumMap<>(ItemStatus.class);
+        long total = 0;
+        for (ItemCategory category : CATEGORIES) {
+            Map<ItemStatus, Long> row = new EnumMap<>(ItemStatus.class);
+            for (ItemStatus status : STATUSES) {
+                long count = 0;
+                for (LongAdder[] cells : sources) {
+                    count += cells[cell(category, status)].sum();
+                }
+                row.put(status, count);
+                byStatus.merge(status, count, Long::sum);
+                byCategory.merge(category, count, Long::sum);
+                total += count;
+            }
+            counts.put(category, row);
+        }
+        return new ItemFacets(universityId, total, counts, byCategory, byStatus);
+    }
+
+    private void add(Long universityId, ItemCategory category, ItemStatus status, long delta) {
+        add(counters, universityId, category, status, delta);
+        Map<Long, LongAdder[]> deltas = journal;
+        if (deltas != null) {
+            add(deltas, universityId, category, status, delta);
+        }
+    }
+
+    private static void add(Map<Long, LongAdder[]> target, Long universityId, ItemCategory category,
+                            ItemStatus status, long delta) {
+        if (status == null) {
+            return;
+        }
+        target.computeIfAbsent(universityId, id -> newCells())[cell(category, status)].add(delta);
+    }
+
+    private static LongAdder[] newCells() {
+        LongAdder[] cells = new LongAdder[CATEGORIES.length * STATUSES.length];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new LongAdder();
+        }
+        return cells;
+    }
+
+    private static int cell(ItemCategory category, ItemStatus status) {
+        return category.ordinal() * STATUSES.length + status.ordinal();
+    }
+}
@@ -0,0 +1,241 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemGeoPoint;
+import com.Lostify.Lostify.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process spatial index over item coordinates. Points are bucketed into a fixed
+ * latitude/longitude grid per university, and nearest-neighbour queries walk the cells
+ * in rings around the query point, so a lookup only touches the cells near it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemGeoIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemGeoIndex.class);
+
+    // Roughly 220 m of latitude per cell, a few buildings across on a campus
+    private static final double CELL_DEGREES = 0.002;
+    private static final double EARTH_RADIUS_METERS = 6_371_000;
+    private static final double METERS_PER_DEGREE = Math.toRadians(1) * EARTH_RADIUS_METERS;
+
+    // Farthest first, so the heap head is the hit to drop; ties drop the older (lower) id
+    private static final Comparator<Hit> FARTHEST_FIRST = Comparator.comparingDouble(Hit::distanceMeters)
+            .thenComparing(Hit::itemId, Comparator.reverseOrder())
+            .reversed();
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // universityId -> cell key -> itemId -> point
+    private final Map<Long, Map<Long, Map<Long, ItemGeoPoint>>> cells = new HashMap<>();
+    private final Map<Long, ItemGeoPoint> points = new HashMap<>();
+
+    public record Hit(Long itemId, double distanceMeters) {
+    }
+
+    /**
+     * Builds the index from the items table once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemGeoPoint> all = itemRepository.findGeoPoints();
+        all.forEach(this::index);
+        logger.info("Geo index built with {} items", all.size());
+    }
+
+    /**
+     * Keeps the index in sync once item changes have been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemoval()) {
+            remove(event.item().getId());
+        } else {
+            index(ItemGeoPoint.from(event.item()));
+        }
+    }
+
+    /**
+     * Adds or replaces a single item. Items without coordinates are only removed.
+     */
+    public void index(ItemGeoPoint point) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(point.id());
+            if (point.latitude() == null || point.longitude() == null || point.universityId() == null) {
+                return;
+            }
+            points.put(point.id(), point);
+            cells.computeIfAbsent(point.universityId(), u -> new HashMap<>())
+                    .computeIfAbsent(cellKey(row(point.latitude()), column(point.longitude())), c -> new HashMap<>())
+                    .put(point.id(), point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an item from the index. Unknown ids are ignored.
+     */
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} items of the university within {@code radiusMeters} of the
+     * given point, nearest first. The status filter may be null.
+     */
+    public List<Hit> nearest(Long universityId, double latitude, double longitude,
+                             double radiusMeters, ItemStatus status, int limit) {
+        if (limit <= 0 || radiusMeters <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Map<Long, ItemGeoPoint>> universityCells = cells.get(universityId);
+            if (universityCells == null) {
+                return Collections.emptyList();
+            }
+
+            int centerRow = row(latitude);
+            int centerColumn = column(longitude);
+            // Narrowest side of a cell around the query point (cells narrow towards the poles, hence the
+            // one degree margin); a point in ring r is at least (r - 1) such widths away
+            double cellMeters = CELL_DEGREES * METERS_PER_DEGREE
+                    * Math.max(0.01, Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + 1.0))));
+            int maxRing = (int) Math.ceil(radiusMeters / cellMeters) + 1;
+
+            PriorityQueue<Hit> heap = new PriorityQueue<>(FARTHEST_FIRST);
+            for (int ring = 0; ring <= maxRing; ring++) {
+                double ringMinDistance = Math.max(0, ring - 1) * cellMeters;
+                if (ringMinDistance > radiusMeters
+                        || (heap.size() == limit && ringMinDistance > heap.peek().distanceMeters())) {
+                    break;
+                }
+                for (long cell : ring(centerRow, centerColumn, ring)) {
+                    Map<Long, ItemGeoPoint> bucket = universityCells.get(cell);
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (ItemGeoPoint point : bucket.values()) {
+                        if (status != null && status != point.status()) {
+                            continue;
+                        }
+                        double distance = distanceMeters(latitude, longitude, point.latitude(), point.longitude());
+                        if (distance > radiusMeters) {
+                            continue;
+                        }
+                        heap.offer(new Hit(point.id(), distance));
+                        if (heap.size() > limit) {
+                            heap.poll();
+                        }
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(heap);
+            hits.sort(FARTHEST_FIRST.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Great-circle distance between two coordinates using the haversine formula.
+     */
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private void removeUnlocked(Long itemId) {
+        ItemGeoPoint previous = points.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        Map<Long, Map<Long, ItemGeoPoint>> universityCells = cells.get(previous.universityId());
+        if (universityCells == null) {
+            return;
+        }
+        long key = cellKey(row(previous.latitude()), column(previous.longitude()));
+        Map<Long, ItemGeoPoint> bucket = universityCells.get(key);
+        if (bucket != null) {
+            bucket.remove(itemId);
+            if (bucket.isEmpty()) {
+                universityCells.remove(key);
+            }
+        }
+        if (universityCells.isEmpty()) {
+            cells.remove(previous.universityId());
+        }
+    }
+
+    // Cells on the square ring at Chebyshev distance r from the center cell
+    private static List<Long> ring(int centerRow, int centerColumn, int r) {
+        if (r == 0) {
+            return List.of(cellKey(centerRow, centerColumn));
+        }
+        List<Long> keys = new ArrayList<>(8 * r);
+        for (int offset = -r; offset <= r; offset++) {
+            keys.add(cellKey(centerRow - r, centerColumn + offset));
+            keys.add(cellKey(centerRow + r, centerColumn + offset));
+        }
+        for (int offset = -r + 1; offset <= r - 1; offset++) {
+            keys.add(cellKey(centerRow + offset, centerColumn - r));
+            keys.add(cellKey(centerRow + offset, centerColumn + r));
+        }
+        return keys;
+    }
+
+    private static int row(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int column(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
@@ -0,0 +1,442 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemImportResult;
+import com.Lostify.Lostify.dto.ItemImportRow;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.model.University;
+import com.Lostify.Lostify.model.User;
+import com.Lostify.Lostify.repository.ItemRepository;
+import com.Lostify.Lostify.repository.UniversityRepository;
+import com.Lostify.Lostify.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.PersistenceException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Imports an existing lost-and-found ledger from a CSV or NDJSON stream.
+ * <p>
+ * Rows are read and validated one at a time and written in batches, each batch in its own
+ * transaction that is flushed and cleared from the persistence context at its end, so memory
+ * stays constant however long the file is, even inside a request's open session. Universities
+ * and reporters are looked up once per distinct value. A failing row is reported and skipped; a failing batch
+ * is reported as a whole and the import carries on with the next one.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemImportService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    static final String ADMIN_ROLE = "ROLE_ADMIN";
+
+    private static final List<String> CSV_COLUMNS = List.of(
+            "name", "description", "category", "status", "location", "datereported", "latitude", "longitude",
+            "contactphone", "contactemail", "photourls", "universityid", "reporter");
+
+    private final ItemRepository itemRepository;
+    private final UniversityRepository universityRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final PhotoStore photoStore;
+    private final EntityManager entityManager;
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    /**
+     * Per-import state: lookup maps, the pending batch and the counters.
+     */
+    private class ImportRun {
+        final Long defaultUniversityId;
+        final ItemStatus defaultStatus;
+        final User importer;
+        final boolean mayAttribute;
+        final Map<Long, Optional<University>> universities = new HashMap<>();
+        final Map<String, Optional<User>> users = new HashMap<>();
+        final List<Item> batch = new ArrayList<>(BATCH_SIZE);
+        final List<ItemImportResult.RowError> errors = new ArrayList<>();
+        long batchFirstLine;
+        long imported;
+        long failed;
+
+        ImportRun(Long defaultUniversityId, ItemStatus defaultStatus, User importer, boolean mayAttribute) {
+            this.defaultUniversityId = defaultUniversityId;
+            this.defaultStatus = defaultStatus;
+            this.importer = importer;
+            this.mayAttribute = mayAttribute;
+        }
+
+        void accept(long line, ItemImportRow row) {
+            Item item;
+            try {
+                item = toItem(row);
+            } catch (IllegalArgumentException e) {
+                reject(line, e.getMessage());
+                return;
+            }
+            if (batch.isEmpty()) {
+                batchFirstLine = line;
+            }
+            batch.add(item);
+            if (batch.size() >= BATCH_SIZE) {
+                flush(line);
+            }
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ItemImportResult.RowError(line, message));
+            }
+        }
+
+        void flush(long lastLine) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<Item> items = new ArrayList<>(batch);
+            batch.clear();
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    itemRepository.saveAll(items);
+                    items.forEach(item -> photoStore.retain(item.getPhotoUrls()));
+                    // Delivered after this batch commits, like single reports
+                    items.forEach(item -> eventPublisher.publishEvent(ItemChangedEvent.imported(item)));
+                    // Under open-session-in-view every batch shares the request's persistence
+                    // context; without this, each flush would dirty-check all items saved so far
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+                imported += items.size();
+            } catch (DataAccessException | PersistenceException e) {
+                // The inserts run on entityManager.flush(), which is not translated to DataAccessException
+                logger.warn("Import batch of lines {}-{} failed", batchFirstLine, lastLine, e);
+                // Drop the rolled-back items, which would otherwise be inserted again with the next batch
+                entityManager.clear();
+                failed += items.size();
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new ItemImportResult.RowError(batchFirstLine,
+                            "Batch of lines " + batchFirstLine + "-" + lastLine + " was not saved: "
+                                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage()));
+                }
+            }
+        }
+
+        private Item toItem(ItemImportRow row) {
+            String name = required(row.getName(), "name", 255);
+            String location = required(row.getLocation(), "location", 255);
+            ItemCategory category = parseEnum(ItemCategory.class, row.getCategory(), "category", null);
+            ItemStatus status = parseEnum(ItemStatus.class, row.getStatus(), "status", defaultStatus);
+            ItemServiceImpl.validateCoordinates(row.getLatitude(), row.getLongitude());
+
+            LocalDate dateReported = LocalDate.now();
+            if (!isBlank(row.getDateReported())) {
+                try {
+                    dateReported = LocalDate.parse(row.getDateReported().trim());
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException("Invalid dateReported: " + row.getDateReported());
+                }
+            }
+
+            Long universityId = row.getUniversityId() != null ? row.getUniversityId() : defaultUniversityId;
+            if (universityId == null) {
+                throw new IllegalArgumentException("University ID is required");
+            }
+            University university = universities.computeIfAbsent(universityId, universityRepository::findById)
+                    .orElseThrow(() -> new IllegalArgumentException("University not found with ID: " + universityId));
+
+            // Only admins may attribute items to other users; anyone else reports their own
+            User reporter = importer;
+            if (mayAttribute && !isBlank(row.getReporter())) {
+                String username = row.getReporter().trim();
+                reporter = users.computeIfAbsent(username, userRepository::findByUsername)
+                        .orElseThrow(() -> new IllegalArgumentException("User not found: " + username));
+            }
+
+            Item item = new Item();
+            item.setName(name);
+            item.setDescription(optional(row.getDescription(), "description", 1000));
+            item.setCategory(category);
+            item.setStatus(status);
+            item.setLocation(location);
+            item.setLatitude(row.getLatitude());
+            item.setLongitude(row.getLongitude());
+            item.setDateReported(dateReported);
+            item.setContactPhone(optional(row.getContactPhone(), "contactPhone", 15));
+            String contactEmail = optional(row.getContactEmail(), "contactEmail", 100);
+            item.setContactEmail(contactEmail != null ? contactEmail : reporter.getEmail());
+            List<String> photoUrls = row.getPhotoUrls() != null ? new ArrayList<>(row.getPhotoUrls()) : new ArrayList<>();
+            for (String photoUrl : photoUrls) {
+                if (photoUrl != null && photoUrl.length() > Item.MAX_PHOTO_URL_LENGTH) {
+                    throw new IllegalArgumentException("photoUrls entry is longer than " + Item.MAX_PHOTO_URL_LENGTH + " characters");
+                }
+            }
+            item.setPhotoUrls(photoUrls);
+            item.setUniversity(university);
+            item.setUser(reporter);
+            return item;
+        }
+    }
+
+    /**
+     * Reads the whole stream and imports every valid row. Rows without a university or status
+     * fall back to the given defaults. Rows are attributed to their reporter when the current user
+     * is an admin, and to the current user otherwise.
+     */
+    public ItemImportResult importItems(InputStream input, Format format, Long defaultUniversityId,
+                                        ItemStatus defaultStatus) throws IOException {
+        long startedAt = System.nanoTime();
+        ImportRun run = new ImportRun(defaultUniversityId, defaultStatus, getCurrentUser(), isAdmin());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long lastLine = format == Format.CSV ? readCsv(reader, run) : readNdjson(reader, run);
+        run.flush(lastLine);
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+        double rowsPerSecond = (run.imported + run.failed) * 1000.0 / elapsedMillis;
+        logger.info("Imported {} items ({} failed) in {} ms, {} rows/s",
+                run.imported, run.failed, elapsedMillis, Math.round(rowsPerSecond));
+        return new ItemImportResult(run.imported, run.failed, run.errors, elapsedMillis, rowsPerSecond);
+    }
+
+    private long readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        long line = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            try {
+                run.accept(line, objectMapper.readValue(text, ItemImportRow.class));
+            } catch (JsonProcessingException e) {
+                run.reject(line, "Invalid JSON: " + e.getOriginalMessage());
+            }
+        }
+        return line;
+    }
+
+    private long readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        long[] line = {0};
+        List<String> header = readCsvRecord(reader, line);
+        if (header == null) {
+            return 0;
+        }
+        List<String> columns = header.stream().map(column -> column.trim().toLowerCase(Locale.ROOT)).toList();
+        for (String column : columns) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+            }
+        }
+
+        while (true) {
+            long recordLine = line[0] + 1;
+            List<String> values;
+            try {
+                values = readCsvRecord(reader, line);
+            } catch (IllegalArgumentException e) {
+                // An unterminated quote swallows the rest of the file
+                run.reject(recordLine, e.getMessage());
+                break;
+            }
+            if (values == null) {
+                break;
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            if (values.size() != columns.size()) {
+                run.reject(recordLine, "Expected " + columns.size() + " columns but found " + values.size());
+            } else {
+                try {
+                    run.accept(recordLine, toRow(columns, values));
+                } catch (IllegalArgumentException e) {
+                    run.reject(recordLine, e.getMessage());
+                }
+            }
+        }
+        return line[0];
+    }
+
+    private static ItemImportRow toRow(List<String> columns, List<String> values) {
+        ItemImportRow row = new ItemImportRow();
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (columns.get(i)) {
+                case "name" -> row.setName(value);
+                case "description" -> row.setDescription(value);
+                case "category" -> row.setCategory(value);
+                case "status" -> row.setStatus(value);
+                case "location" -> row.setLocation(value);
+                case "datereported" -> row.setDateReported(value);
+                case "latitude" -> row.setLatitude(parseDouble(value, "latitude"));
+                case "longitude" -> row.setLongitude(parseDouble(value, "longitude"));
+                case "contactphone" -> row.setContactPhone(value);
+                case "contactemail" -> row.setContactEmail(value);
+                // Several photo URLs are separated by '|'
+                case "photourls" -> row.setPhotoUrls(Arrays.stream(value.split("\\|"))
+                        .map(String::trim).filter(url -> !url.isEmpty()).toList());
+                case "universityid" -> row.setUniversityId(parseLong(value, "universityId"));
+                case "reporter" -> row.setReporter(value);
+                default -> { }
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Reads one RFC 4180 record: comma separated, fields optionally quoted, quotes doubled inside
+     * quoted fields, and quoted fields may span lines. Returns null at the end of the stream.
+     */
+    private static List<String> readCsvRecord(BufferedReader reader, long[] line) throws IOException {
+        String text = reader.readLine();
+        if (text == null) {
+            return null;
+        }
+        line[0]++;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = reader.readLine();
+                if (next == null) {
+                    throw new IllegalArgumentException("Unterminated quoted field at line " + line[0]);
+                }
+                line[0]++;
+                field.append('\n');
+                text = next;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < text.length() && text.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private User getCurrentUser() {
+        UserDetails userDetails = (UserDetails) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new EntityNotFoundException("Current user not found"));
+    }
+
+    private static boolean isAdmin() {
+        return SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_ROLE.equals(authority.getAuthority()));
+    }
+
+    private static String required(String value, String field, int maxLength) {
+        if (isBlank(value)) {
+            throw new IllegalArgumentException("Missing " + field);
+        }
+        return optional(value, field, maxLength);
+    }
+
+    private static String optional(String value, String field, int maxLength) {
+        if (isBlank(value)) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > maxLength) {
+            throw new IllegalArgumentException(field + " is longer than " + maxLength + " characters");
+        }
+        return trimmed;
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field, E fallback) {
+        if (isBlank(value)) {
+            if (fallback == null) {
+                throw new IllegalArgumentException("Missing " + field);
+            }
+            return fallback;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static double parseDouble(String value, String field) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static long parseLong(String value, String field) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + field + ": " + value);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
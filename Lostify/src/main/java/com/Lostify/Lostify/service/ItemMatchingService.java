@@ -0,0 +1,257 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemIndexRow;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.model.ItemMatch;
+import com.Lostify.Lostify.repository.ItemMatchRepository;
+import com.Lostify.Lostify.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Scores newly reported items against items of the opposite status in the same university
+ * and persists the best candidate pairs, so that match lookups are a single indexed read.
+ * Scoring runs on a small bounded executor and never on the request thread.
+ */
+@Service
+public class ItemMatchingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemMatchingService.class);
+
+    private static final int CANDIDATE_POOL = 50;
+    private static final int MAX_MATCHES_PER_ITEM = 10;
+    private static final double MIN_SCORE = 0.25;
+
+    private static final double TEXT_WEIGHT = 0.45;
+    private static final double CATEGORY_WEIGHT = 0.20;
+    private static final double LOCATION_WEIGHT = 0.20;
+    private static final double DATE_WEIGHT = 0.15;
+    private static final double DATE_DECAY_DAYS = 14.0;
+
+    private final ItemRepository itemRepository;
+    private final ItemMatchRepository itemMatchRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private record Candidate(Long itemId, double score) {
+    }
+
+    public ItemMatchingService(ItemRepository itemRepository,
+                               ItemMatchRepository itemMatchRepository,
+                               ItemSearchIndex itemSearchIndex,
+                               TransactionTemplate transactionTemplate) {
+        this.itemRepository = itemRepository;
+        this.itemMatchRepository = itemMatchRepository;
+        this.itemSearchIndex = itemSearchIndex;
+        this.transactionTemplate = transactionTemplate;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "item-matching-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Matches are advisory; dropping a rescore under overload is better than blocking a submission
+                (runnable, pool) -> logger.warn("Item matching queue is full, skipping rescore"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a rescore once the item change has been committed. Imported backlog items are not
+     * scored themselves (a large import would overrun the queue); they gain matches when
+     * items of the opposite status are reported against them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemoval() || event.type() == ItemChangedEvent.Type.IMPORTED) {
+            return;
+        }
+        ItemIndexRow row = ItemIndexRow.from(event.item());
+        executor.execute(() -> {
+            try {
+                rescore(row);
+            } catch (Exception e) {
+                logger.error("Failed to rescore matches for item {}", row.id(), e);
+            }
+        });
+    }
+
+    /**
+     * Removes every stored pair involving the item. Called before the item itself is deleted.
+     */
+    public void removeMatches(Long itemId) {
+        itemMatchRepository.deleteAllInvolving(itemId);
+    }
+
+    /**
+     * Returns the ids of the best stored candidates for an item, highest score first.
+     */
+    public List<Long> getMatchIds(Long itemId, int limit) {
+        return itemMatchRepository.findTopCandidateIds(itemId, PageRequest.of(0, limit));
+    }
+
+    private void rescore(ItemIndexRow row) {
+        ItemStatus opposite = oppositeOf(row.status());
+        List<Candidate> best = opposite == null ? List.of() : scoreCandidates(row, opposite);
+
+        Integer stored = transactionTemplate.execute(status -> {
+            // Share-locked, so a concurrent delete either waits for this rescore and then removes
+            // its pairs, or commits first and the deleted items are skipped here
+            List<Long> ids = new ArrayList<>();
+            ids.add(row.id());
+            best.forEach(candidate -> ids.add(candidate.itemId()));
+            Set<Long> live = itemRepository.lockAllById(ids).stream().map(Item::getId).collect(Collectors.toSet());
+            if (!live.contains(row.id())) {
+                return 0;
+            }
+            // In id order, so two rescores sharing pairs lock their rows in the same order
+            List<Candidate> kept = best.stream()
+                    .filter(candidate -> live.contains(candidate.itemId()))
+                    .sorted(Comparator.comparing(Candidate::itemId))
+                    .toList();
+
+            List<Long> keepIds = kept.stream().map(Candidate::itemId).toList();
+            if (keepIds.isEmpty()) {
+                itemMatchRepository.deleteAllInvolving(row.id());
+            } else {
+                itemMatchRepository.deleteAllInvolvingExcept(row.id(), keepIds);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (Candidate candidate : kept) {
+                Long low = Math.min(row.id(), candidate.itemId());
+                Long high = Math.max(row.id(), candidate.itemId());
+                itemMatchRepository.upsert(low, high, candidate.score(), now);
+                itemMatchRepository.upsert(high, low, candidate.score(), now);
+                trim(candidate.itemId());
+            }
+            return kept.size();
+        });
+        logger.debug("Stored {} matches for item {}", stored, row.id());
+    }
+
+    private List<Candidate> scoreCandidates(ItemIndexRow row, ItemStatus opposite) {
+        List<Long> ids = itemSearchIndex.moreLikeThis(row, opposite, CANDIDATE_POOL).stream()
+                .map(ItemSearchIndex.Hit::itemId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemIndexRow> candidates = itemRepository.findIndexRowsByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemIndexRow::id, Function.identity()));
+
+        return candidates.values().stream()
+                .filter(candidate -> candidate.status() == opposite)
+                .map(candidate -> new Candidate(candidate.id(), score(row, candidate)))
+                .filter(candidate -> candidate.score() >= MIN_SCORE)
+                .sorted(Comparator.comparingDouble(Candidate::score).reversed())
+                .limit(MAX_MATCHES_PER_ITEM)
+                .toList();
+    }
+
+    /**
+     * Keeps only the best pairs of a candidate that just gained a new one, dropping both
+     * directions of each pair it loses so no pair is left one-sided.
+     */
+    private void trim(Long itemId) {
+        List<ItemMatch> matches = itemMatchRepository.findByItemIdOrderByScoreDesc(itemId);
+        if (matches.size() > MAX_MATCHES_PER_ITEM) {
+            List<Long> dropped = matches.subList(MAX_MATCHES_PER_ITEM, matches.size()).stream()
+                    .map(match -> match.getCandidate().getId())
+                    .toList();
+            itemMatchRepository.deletePairs(itemId, dropped);
+        }
+    }
+
+    static double score(ItemIndexRow a, ItemIndexRow b) {
+        double text = dice(terms(a.name(), a.description()), terms(b.name(), b.description()));
+        double category = a.category() == b.category() ? 1.0 : 0.0;
+        double location = locationSimilarity(a.location(), b.location());
+        double date = dateProximity(a.dateReported(), b.dateReported());
+        return TEXT_WEIGHT * text + CATEGORY_WEIGHT * category + LOCATION_WEIGHT * location + DATE_WEIGHT * date;
+    }
+
+    private static ItemStatus oppositeOf(ItemStatus status) {
+        if (status == ItemStatus.LOST) {
+            return ItemStatus.FOUND;
+        }
+        if (status == ItemStatus.FOUND) {
+            return ItemStatus.LOST;
+        }
+        return null;
+    }
+
+    private static Set<String> terms(String... texts) {
+        Set<String> terms = new HashSet<>();
+        for (String text : texts) {
+            terms.addAll(ItemSearchIndex.tokenize(text));
+        }
+        return terms;
+    }
+
+    private static double dice(Set<String> a, Set<String> b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0.0;
+        }
+        Set<String> common = new HashSet<>(a);
+        common.retainAll(b);
+        return 2.0 * common.size() / (a.size() + b.size());
+    }
+
+    private static double locationSimilarity(String a, String b) {
+        if (a == null || b == null) {
+            return 0.0;
+        }
+        if (a.trim().toLowerCase(Locale.ROOT).equals(b.trim().toLowerCase(Locale.ROOT))) {
+            return 1.0;
+        }
+        Set<String> left = terms(a);
+        Set<String> right = terms(b);
+        Set<String> union = new HashSet<>(left);
+        union.addAll(right);
+        if (union.isEmpty()) {
+            return 0.0;
+        }
+        List<String> common = new ArrayList<>(left);
+        common.retainAll(right);
+        return (double) common.size() / union.size();
+    }
+
+    private static double dateProximity(LocalDate a, LocalDate b) {
+        if (a == null || b == null) {
+            return 0.0;
+        }
+        long days = Math.abs(ChronoUnit.DAYS.between(a, b));
+        return Math.exp(-days / DATE_DECAY_DAYS);
+    }
+}
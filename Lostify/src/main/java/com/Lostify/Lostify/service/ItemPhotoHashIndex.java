@@ -0,0 +1,317 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemPhotoHash;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.model.PhotoBlob;
+import com.Lostify.Lostify.repository.ItemRepository;
+import com.Lostify.Lostify.repository.PhotoBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of photo perceptual hashes, one BK-tree per university. A BK-tree orders
+ * hashes by Hamming distance to each node, so a search within a small radius prunes every
+ * subtree whose edge distance is outside [d - radius, d + radius] and visits only a fraction
+ * of the photos.
+ * <p>
+ * Removed items leave their nodes in place with no items; a tree is rebuilt once more than
+ * half of its nodes are empty.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemPhotoHashIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemPhotoHashIndex.class);
+
+    private static final int MIN_NODES_TO_COMPACT = 64;
+
+    private final ItemRepository itemRepository;
+    private final PhotoBlobRepository photoBlobRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Tree> trees = new HashMap<>();
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    public record Hit(Long itemId, int distance) {
+    }
+
+    private record Entry(Long universityId, Set<Long> hashes) {
+    }
+
+    private static final class Node {
+        final long hash;
+        final Map<Long, ItemStatus> items = new HashMap<>(2);
+        Map<Integer, Node> children;
+
+        Node(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    private static final class Tree {
+        Node root;
+        int nodes;
+        int emptyNodes;
+    }
+
+    /**
+     * Builds the index from the items table once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ItemPhotoHash> all = itemRepository.findPhotoHashes();
+        lock.writeLock().lock();
+        try {
+            trees.clear();
+            entries.clear();
+            all.forEach(row -> addUnlocked(row.itemId(), row.universityId(), row.status(), row.hash()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Photo hash index built with {} photos of {} items", all.size(), entries.size());
+    }
+
+    /**
+     * Keeps the index in sync once item changes have been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        switch (event.type()) {
+            case CREATED, IMPORTED -> index(item);
+            case STATUS_CHANGED -> updateStatus(item.getId(), item.getStatus());
+            case DELETED, ARCHIVED -> remove(item.getId());
+        }
+    }
+
+    /**
+     * Adds an item with the stored hashes of its uploaded photos. Photos without a hash are skipped.
+     */
+    public void index(Item item) {
+        if (item.getUniversity() == null || item.getPhotoUrls() == null) {
+            return;
+        }
+        List<String> filenames = item.getPhotoUrls().stream()
+                .filter(url -> url != null && url.startsWith(PhotoStore.URL_PREFIX))
+                .map(url -> url.substring(PhotoStore.URL_PREFIX.length()))
+                .toList();
+        if (filenames.isEmpty()) {
+            return;
+        }
+        List<PhotoBlob> blobs = photoBlobRepository.findAllById(filenames);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(item.getId());
+            for (PhotoBlob blob : blobs) {
+                if (blob.getDhash() != null) {
+                    addUnlocked(item.getId(), item.getUniversity().getId(), item.getStatus(), blob.getDhash());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} other items of the same university with a photo within
+     * {@code maxDistance} bits of any photo of the given item, closest first.
+     * The status filter may be null.
+     */
+    public List<Hit> similar(Long itemId, int maxDistance, ItemStatus status, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<Long, Integer> best = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            Entry entry = entries.get(itemId);
+            Tree tree = entry == null ? null : trees.get(entry.universityId());
+            if (tree == null || tree.root == null) {
+                return Collections.emptyList();
+            }
+            for (long hash : entry.hashes()) {
+                search(tree.root, hash, maxDistance, (node, distance) -> node.items.forEach((candidateId, candidateStatus) -> {
+                    if (!candidateId.equals(itemId) && (status == null || status == candidateStatus)) {
+                        best.merge(candidateId, distance, Math::min);
+                    }
+                }));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> hits = new ArrayList<>(best.size());
+        best.forEach((candidateId, distance) -> hits.add(new Hit(candidateId, distance)));
+        // Closest first; among equals the newer (higher) id first
+        hits.sort(Comparator.comparingInt(Hit::distance).thenComparing(Hit::itemId, Comparator.reverseOrder()));
+        return hits.size() > limit ? hits.subList(0, limit) : hits;
+    }
+
+    private void updateStatus(Long itemId, ItemStatus status) {
+        lock.writeLock().lock();
+        try {
+            Entry entry = entries.get(itemId);
+            if (entry == null) {
+                return;
+            }
+            Tree tree = trees.get(entry.universityId());
+            for (long hash : entry.hashes()) {
+                Node node = find(tree, hash);
+                if (node != null) {
+                    node.items.put(itemId, status);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller must hold the write lock
+    private void addUnlocked(Long itemId, Long universityId, ItemStatus status, long hash) {
+        Entry entry = entries.computeIfAbsent(itemId, id -> new Entry(universityId, new LinkedHashSet<>()));
+        if (!entry.hashes().add(hash)) {
+            return;
+        }
+        Tree tree = trees.computeIfAbsent(universityId, id -> new Tree());
+        insert(tree, hash).items.put(itemId, status);
+    }
+
+    // Caller must hold the write lock
+    private void removeUnlocked(Long itemId) {
+        Entry entry = entries.remove(itemId);
+        if (entry == null) {
+            return;
+        }
+        Tree tree = trees.get(entry.universityId());
+        for (long hash : entry.hashes()) {
+            Node node = find(tree, hash);
+            if (node != null && node.items.remove(itemId) != null && node.items.isEmpty()) {
+                tree.emptyNodes++;
+            }
+        }
+        if (tree.nodes >= MIN_NODES_TO_COMPACT && tree.emptyNodes * 2 > tree.nodes) {
+            compact(tree);
+        }
+    }
+
+    private static Node insert(Tree tree, long hash) {
+        if (tree.root == null) {
+            tree.root = new Node(hash);
+            tree.nodes++;
+            return tree.root;
+        }
+        Node node = tree.root;
+        while (true) {
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance == 0) {
+                if (node.items.isEmpty()) {
+                    // An emptied node comes back into use
+                    tree.emptyNodes--;
+                }
+                return node;
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>(4);
+            }
+            Node child = node.children.get(distance);
+            if (child == null) {
+                child = new Node(hash);
+                node.children.put(distance, child);
+                tree.nodes++;
+                return child;
+            }
+            node = child;
+        }
+    }
+
+    private static Node find(Tree tree, long hash) {
+        Node node = tree == null ? null : tree.root;
+        while (node != null) {
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance == 0) {
+                return node;
+            }
+            node = node.children == null ? null : node.children.get(distance);
+        }
+        return null;
+    }
+
+    private interface Visitor {
+        void visit(Node node, int distance);
+    }
+
+    private static void search(Node root, long hash, int maxDistance, Visitor visitor) {
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = PerceptualHash.distance(node.hash, hash);
+            if (distance <= maxDistance && !node.items.isEmpty()) {
+                visitor.visit(node, distance);
+            }
+            if (node.children == null) {
+                continue;
+            }
+            // Triangle inequality: matches below a child lie at exactly its edge distance from this node
+            for (int edge = Math.max(1, distance - maxDistance); edge <= distance + maxDistance; edge++) {
+                Node child = node.children.get(edge);
+                if (child != null) {
+                    pending.push(child);
+                }
+            }
+        }
+    }
+
+    // Rebuilds a tree from its non-empty nodes
+    private static void compact(Tree tree) {
+        List<Node> live = new ArrayList<>(tree.nodes - tree.emptyNodes);
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree.root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            if (!node.items.isEmpty()) {
+                live.add(node);
+            }
+            if (node.children != null) {
+                node.children.values().forEach(pending::push);
+            }
+        }
+
+        tree.root = null;
+        tree.nodes = 0;
+        tree.emptyNodes = 0;
+        for (Node node : live) {
+            insert(tree, node.hash).items.putAll(node.items);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemCacheStats;
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+import com.Lostify.Lostify.model.Item;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of item list pages, bounded by size (least recently used out) and by age.
+ * <p>
+ * Invalidation is per university: a cached page is only served while the university's generation
+ * in {@link ItemChangeTracker} is still the one it was loaded under, so a committed change makes
+ * every page of that university stale at once.
+ */
+@Component
+public class ItemQueryCache {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    private final ItemChangeTracker itemChangeTracker;
+
+    // Access-ordered, so iteration starts at the least recently used page; guarded by itself
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    // Pages dropped because their university changed since they were loaded
+    private final LongAdder invalidations = new LongAdder();
+
+    private record Key(Long universityId, ItemCategory category, ItemStatus status,
+                       LocalDate reportedFrom, LocalDate reportedTo, String location,
+                       String cursor, int size, boolean oldestFirst) {
+
+        static Key of(ItemFilter filter, ItemPageRequest pageRequest) {
+            return new Key(filter.getUniversityId(), filter.getCategory(), filter.getStatus(),
+                    filter.getReportedFrom(), filter.getReportedTo(), Item.normalizeLocation(filter.getLocation()),
+                    pageRequest.getCursor(), pageRequest.getSize(), pageRequest.isOldestFirst());
+        }
+    }
+
+    private record Entry(ItemPage<ItemSummary> page, long generation, long loadedAt) {
+    }
+
+    public ItemQueryCache(ItemChangeTracker itemChangeTracker,
+                          @Value("${item.cache.max-entries:1000}") int maxEntries,
+                          @Value("${item.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.itemChangeTracker = itemChangeTracker;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    /**
+     * Returns the cached page for the query, or loads it and caches the result.
+     */
+    public ItemPage<ItemSummary> get(ItemFilter filter, ItemPageRequest pageRequest, Supplier<ItemPage<ItemSummary>> loader) {
+        Key key = Key.of(filter, pageRequest);
+        long now = System.currentTimeMillis();
+        // Read before loading, so a change committed during the load leaves the new entry already stale
+        long generation = itemChangeTracker.version(key.universityId()).generation();
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (entry.generation() == generation && now - entry.loadedAt() < ttlMillis) {
+                    hits.increment();
+                    return entry.page();
+                }
+                entries.remove(key);
+                if (entry.generation() == generation) {
+                    evictions.increment();
+                } else {
+                    invalidations.increment();
+                }
+            }
+        }
+
+        misses.increment();
+        ItemPage<ItemSummary> page = loader.get();
+        synchronized (entries) {
+            entries.put(key, new Entry(page, generation, now));
+            while (entries.size() > maxEntries) {
+                Key eldest = entries.keySet().iterator().next();
+                entries.remove(eldest);
+                evictions.increment();
+            }
+        }
+        return page;
+    }
+
+    public ItemCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new ItemCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(), size, maxEntries);
+    }
+}
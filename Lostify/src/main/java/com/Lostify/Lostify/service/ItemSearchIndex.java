@@ -0,0 +1,302 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemIndexRow;
+import com.Lostify.Lostify.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process inverted index over item name, description and location.
+ * Results are ranked with BM25 and filtered by university, status and category
+ * inside the index, so a search only touches the postings of the query terms.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ItemSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final int MAX_PREFIX_EXPANSIONS = 20;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "at", "by", "for", "from", "in", "is", "it",
+            "my", "near", "of", "on", "or", "the", "to", "was", "with");
+
+    // Lowest score first; ties are broken towards the newer (higher) id
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble(Hit::score)
+            .thenComparing(Hit::itemId, Comparator.reverseOrder());
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (itemId -> weighted term frequency); sorted so the last query term can be prefix-expanded
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private long totalLength;
+
+    public record Hit(Long itemId, double score) {
+    }
+
+    private record Document(Long universityId, ItemStatus status, ItemCategory category,
+                            Map<String, Integer> termFrequencies, int length) {
+    }
+
+    /**
+     * Builds the index from the items table once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0L;
+        int count = 0;
+        List<ItemIndexRow> batch;
+        do {
+            batch = itemRepository.findIndexRowsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (ItemIndexRow row : batch) {
+                index(row);
+                lastId = row.id();
+            }
+            count += batch.size();
+        } while (batch.size() == LOAD_BATCH_SIZE);
+        logger.info("Search index built with {} items and {} terms", count, termCount());
+    }
+
+    /**
+     * Keeps the index in sync once item changes have been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (event.isRemoval()) {
+            remove(event.item().getId());
+        } else {
+            index(ItemIndexRow.from(event.item()));
+        }
+    }
+
+    /**
+     * Adds or replaces a single item.
+     */
+    public void index(ItemIndexRow row) {
+        Map<String, Integer> frequencies = termFrequencies(row);
+        int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+        Document document = new Document(row.universityId(), row.status(), row.category(), frequencies, length);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(row.id());
+            documents.put(row.id(), document);
+            totalLength += length;
+            frequencies.forEach((term, tf) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(row.id(), tf));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes an item from the index. Unknown ids are ignored.
+     */
+    public void remove(Long itemId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(itemId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of the best matching items, highest score first.
+     * Any of the filters may be null. The last query term is also matched as a prefix
+     * so that results are useful while the user is still typing.
+     */
+    public List<Hit> search(String query, Long universityId, ItemStatus status, ItemCategory category, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Double> weightedTerms = new HashMap<>();
+            for (int i = 0; i < terms.size(); i++) {
+                String term = terms.get(i);
+                if (i == terms.size() - 1) {
+                    // Prefix expansions count less than exact matches of the typed term
+                    expandPrefix(term).forEach(expanded -> weightedTerms.merge(expanded, 0.5, Math::max));
+                }
+                weightedTerms.put(term, 1.0);
+            }
+            return score(weightedTerms, null, universityId, status, category, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the items of the given status in the same university whose text is closest to
+     * the given item, using the item's own terms as the query. The item itself is excluded.
+     */
+    public List<Hit> moreLikeThis(ItemIndexRow row, ItemStatus status, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Double> weightedTerms = new HashMap<>();
+        termFrequencies(row).forEach((term, tf) -> weightedTerms.put(term, (double) tf));
+
+        lock.readLock().lock();
+        try {
+            return score(weightedTerms, row.id(), row.universityId(), status, null, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller must hold the read lock
+    private List<Hit> score(Map<String, Double> weightedTerms, Long excludedId,
+                            Long universityId, ItemStatus status, ItemCategory category, int limit) {
+        if (documents.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double averageLength = Math.max(1.0, (double) totalLength / documents.size());
+        Map<Long, Double> scores = new HashMap<>();
+
+        weightedTerms.forEach((term, weight) -> {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting == null) {
+                return;
+            }
+            double idf = Math.log(1 + (documents.size() - posting.size() + 0.5) / (posting.size() + 0.5));
+            posting.forEach((itemId, tf) -> {
+                Document document = documents.get(itemId);
+                if (itemId.equals(excludedId) || !matches(document, universityId, status, category)) {
+                    return;
+                }
+                double norm = tf + K1 * (1 - B + B * document.length() / averageLength);
+                scores.merge(itemId, weight * idf * tf * (K1 + 1) / norm, Double::sum);
+            });
+        });
+        return topK(scores, limit);
+    }
+
+    /**
+     * Splits free text into lower-cased index terms, dropping stop words and single characters.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(Long itemId) {
+        Document previous = documents.remove(itemId);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length();
+        for (String term : previous.termFrequencies().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(itemId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private List<String> expandPrefix(String prefix) {
+        List<String> expanded = new ArrayList<>();
+        for (String term : postings.subMap(prefix, false, prefix + Character.MAX_VALUE, false).keySet()) {
+            if (expanded.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            expanded.add(term);
+        }
+        return expanded;
+    }
+
+    private static boolean matches(Document document, Long universityId, ItemStatus status, ItemCategory category) {
+        return document != null
+                && (universityId == null || universityId.equals(document.universityId()))
+                && (status == null || status == document.status())
+                && (category == null || category == document.category());
+    }
+
+    private static List<Hit> topK(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(WORST_FIRST);
+        scores.forEach((itemId, score) -> {
+            heap.offer(new Hit(itemId, score));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        });
+        List<Hit> hits = new ArrayList<>(heap);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    private static Map<String, Integer> termFrequencies(ItemIndexRow row) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, row.name(), NAME_WEIGHT);
+        addTerms(frequencies, row.description(), 1);
+        addTerms(frequencies, row.location(), 1);
+        return frequencies;
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String term : tokenize(text)) {
+            frequencies.merge(term, weight, Integer::sum);
+        }
+    }
+}
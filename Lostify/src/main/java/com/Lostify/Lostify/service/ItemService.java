@@ -2,6 +2,14 @@ package com.Lostify.Lostify.service;
 
 import java.util.List;
 import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemCacheStats;
+import com.Lostify.Lostify.dto.ItemFacets;
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemListVersion;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+import com.Lostify.Lostify.dto.ItemVersion;
 import com.Lostify.Lostify.model.Item;
 
 
@@ -11,33 +19,35 @@ public interface ItemService {
 
     Item reportFoundItem(Item item, Long universityId);
 
-    List<Item> getAllItems();
+    ItemPage<ItemSummary> getItems(ItemFilter filter, ItemPageRequest pageRequest);
 
     Item getItemById(Long id);
 
+    ItemVersion getItemVersion(Long id);
+
+    ItemListVersion getListVersion(Long universityId);
+
     Item updateItemStatus(Long id, ItemStatus status);
 
     void deleteItem(Long id);
 
-    List<Item> getItemsByStatus(ItemStatus status);
+    ItemPage<ItemSummary> getItemsByLocation(Long universityId, String location, ItemPageRequest pageRequest);
+
+    List<String> getLocationSuggestions(Long universityId, String prefix, int limit);
+
+    List<ItemSummary> getFoundItemSuggestions(String description, Long universityId, String category, int limit);
+
+    List<ItemSummary> getLostItemSuggestions(String description, Long universityId, String category, int limit);
+
+    List<ItemSummary> getItemMatches(Long itemId, int limit);
 
-    List<Item> getItemsByCategory(String category);
-    
-    List<Item> getItemsByCategoryAndStatus(String category, ItemStatus status);
+    List<ItemSummary> getNearbyItems(Long universityId, double latitude, double longitude,
+                                     double radiusMeters, ItemStatus status, int limit);
 
-    List<Item> getItemsByLocation(String location);
+    List<ItemSummary> getVisuallySimilarItems(Long itemId, int maxDistance, ItemStatus status, int limit);
 
-    List<Item> getFoundItemSuggestions(String description);
+    ItemCacheStats getCacheStats();
 
-    List<Item> getLostItemSuggestions(String description);
-    
-    // University-based methods
-    List<Item> getItemsByUniversityId(Long universityId);
-    
-    List<Item> getItemsByUniversityIdAndCategory(Long universityId, String category);
-    
-    List<Item> getItemsByUniversityIdAndStatus(Long universityId, ItemStatus status);
-    
-    List<Item> getItemsByUniversityIdAndCategoryAndStatus(Long universityId, String category, ItemStatus status);
+    ItemFacets getFacets(Long universityId);
 }
 
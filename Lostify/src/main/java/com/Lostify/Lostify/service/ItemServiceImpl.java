@@ -1,25 +1,41 @@
 package com.Lostify.Lostify.service;
 
+import com.Lostify.Lostify.model.ArchivedItem;
 import com.Lostify.Lostify.model.Item;
 import com.Lostify.Lostify.model.User;
 import com.Lostify.Lostify.model.University;
 import com.Lostify.Lostify.domain.ItemCategory;
+import com.Lostify.Lostify.domain.ItemChangedEvent;
 import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemCacheStats;
+import com.Lostify.Lostify.dto.ItemFacets;
+import com.Lostify.Lostify.dto.ItemFilter;
+import com.Lostify.Lostify.dto.ItemListVersion;
+import com.Lostify.Lostify.dto.ItemPage;
+import com.Lostify.Lostify.dto.ItemPageRequest;
+import com.Lostify.Lostify.dto.ItemSummary;
+import com.Lostify.Lostify.dto.ItemVersion;
+import com.Lostify.Lostify.repository.ItemArchiveRepository;
 import com.Lostify.Lostify.repository.ItemRepository;
 import com.Lostify.Lostify.repository.UserRepository;
 import com.Lostify.Lostify.repository.UniversityRepository;
 import com.Lostify.Lostify.service.ItemService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
-import org.apache.commons.text.similarity.JaroWinklerSimilarity;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,11 +50,23 @@ public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final UniversityRepository universityRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemMatchingService itemMatchingService;
+    private final LocationIndex locationIndex;
+    private final ItemGeoIndex itemGeoIndex;
+    private final ItemPhotoHashIndex itemPhotoHashIndex;
+    private final ItemQueryCache itemQueryCache;
+    private final ItemChangeTracker itemChangeTracker;
+    private final ItemFacetCounter itemFacetCounter;
+    private final ItemArchiveRepository itemArchiveRepository;
+    private final PhotoStore photoStore;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Saves a new lost item with LOST status.
      */
     @Override
+    @Transactional
     public Item reportLostItem(Item item, Long universityId) {
         logger.info("Reporting lost item: {} for universityId: {}", item.getName(), universityId);
         
@@ -65,10 +93,14 @@ public class ItemServiceImpl implements ItemService {
         if (item.getContactEmail() == null || item.getContactEmail().isEmpty()) {
             item.setContactEmail(currentUser.getEmail());
         }
+
+        validateCoordinates(item.getLatitude(), item.getLongitude());
         
         logger.info("Saving item to database...");
         Item savedItem = itemRepository.save(item);
         logger.info("Successfully saved item with ID: {}", savedItem.getId());
+        photoStore.retain(savedItem.getPhotoUrls());
+        eventPublisher.publishEvent(ItemChangedEvent.created(savedItem));
         return savedItem;
     }
 
@@ -76,6 +108,7 @@ public class ItemServiceImpl implements ItemService {
      * Saves a new found item with FOUND status.
      */
     @Override
+    @Transactional
     public Item reportFoundItem(Item item, Long universityId) {
         logger.info("Reporting found item: {} for universityId: {}", item.getName(), universityId);
         
@@ -102,10 +135,14 @@ public class ItemServiceImpl implements ItemService {
         if (item.getContactEmail() == null || item.getContactEmail().isEmpty()) {
             item.setContactEmail(currentUser.getEmail());
         }
+
+        validateCoordinates(item.getLatitude(), item.getLongitude());
         
         logger.info("Saving item to database...");
         Item savedItem = itemRepository.save(item);
         logger.info("Successfully saved item with ID: {}", savedItem.getId());
+        photoStore.retain(savedItem.getPhotoUrls());
+        eventPublisher.publishEvent(ItemChangedEvent.created(savedItem));
         return savedItem;
     }
 
@@ -120,40 +157,96 @@ public class ItemServiceImpl implements ItemService {
     }
 
     /**
-     * Returns all items from the DB.
+     * Returns one keyset page of item summaries matching any combination of filters.
+     * Pages are served from the query cache until an item of the university changes.
      */
     @Override
-    public List<Item> getAllItems() {
-        return itemRepository.findAll();
+    public ItemPage<ItemSummary> getItems(ItemFilter filter, ItemPageRequest pageRequest) {
+        return itemQueryCache.get(filter, pageRequest, () -> itemRepository.findSummaries(filter, pageRequest));
     }
 
     /**
-     * Retrieves a specific item by ID.
+     * Retrieves a specific item by ID, falling back to the archive for items moved out of
+     * the live table. Archived items come back as detached, read-only copies.
      */
     @Override
     public Item getItemById(Long id) {
-        Item item = itemRepository.findByIdWithUser(id)
+        return itemRepository.findByIdWithUser(id)
+                .or(() -> itemArchiveRepository.findWithPhotosById(id).map(this::fromArchive))
                 .orElseThrow(() -> new EntityNotFoundException("Item not found with ID: " + id));
-        
-        return item;
+    }
+
+    /**
+     * Reads the version columns of an item with a single primary key lookup, live table first.
+     */
+    @Override
+    public ItemVersion getItemVersion(Long id) {
+        return itemRepository.findVersionById(id)
+                .or(() -> itemArchiveRepository.findVersionById(id))
+                .orElseThrow(() -> new EntityNotFoundException("Item not found with ID: " + id));
+    }
+
+    /**
+     * Live items only; archived items can no longer be changed.
+     */
+    private Item getLiveItem(Long id) {
+        return itemRepository.findByIdWithUser(id)
+                .orElseThrow(() -> new EntityNotFoundException("Item not found with ID: " + id));
+    }
+
+    private Item fromArchive(ArchivedItem archived) {
+        return Item.builder()
+                .id(archived.getId())
+                .name(archived.getName())
+                .description(archived.getDescription())
+                .category(archived.getCategory())
+                .status(archived.getStatus())
+                .dateReported(archived.getDateReported())
+                .location(archived.getLocation())
+                .locationNormalized(archived.getLocationNormalized())
+                .latitude(archived.getLatitude())
+                .longitude(archived.getLongitude())
+                .university(universityRepository.findById(archived.getUniversityId()).orElse(null))
+                .user(userRepository.findById(archived.getUserId()).orElse(null))
+                .imageUrl(archived.getImageUrl())
+                .photoUrls(new ArrayList<>(archived.getPhotoUrls()))
+                .photoVariants(new ArrayList<>(itemArchiveRepository.findPhotoVariantsById(archived.getId())))
+                .contactPhone(archived.getContactPhone())
+                .contactEmail(archived.getContactEmail())
+                .version(archived.getVersion())
+                .lastModified(archived.getLastModified())
+                .build();
+    }
+
+    /**
+     * Current change counter of a university's listings, read from memory.
+     */
+    @Override
+    public ItemListVersion getListVersion(Long universityId) {
+        return itemChangeTracker.version(universityId);
     }
 
     /**
      * Updates the status of an existing item.
      */
     @Override
+    @Transactional
     public Item updateItemStatus(Long id, ItemStatus newStatus) {
-        Item item = getItemById(id);
+        Item item = getLiveItem(id);
+        ItemStatus previousStatus = item.getStatus();
         item.setStatus(newStatus);
-        return itemRepository.save(item);
+        Item savedItem = itemRepository.save(item);
+        eventPublisher.publishEvent(ItemChangedEvent.statusChanged(savedItem, previousStatus));
+        return savedItem;
     }
 
     /**
      * Deletes the item by ID.
      */
     @Override
+    @Transactional
     public void deleteItem(Long id) {
-        Item item = getItemById(id);
+        Item item = getLiveItem(id);
         User currentUser = getCurrentUser();
         
         // Check if the current user owns this item
@@ -161,100 +254,146 @@ public class ItemServiceImpl implements ItemService {
             throw new SecurityException("You can only delete your own items");
         }
         
-        // Delete associated photos
-        if (item.getPhotoUrls() != null) {
-            item.getPhotoUrls().forEach(photoUrl -> {
-                // Delete photo files (implement this in FileUploadService if needed)
-            });
-        }
-        
+        // Locked first, so a rescore running meanwhile cannot add a pair after its pairs are removed
+        itemRepository.lockById(id);
+        List<String> photoUrls = itemRepository.findPhotoUrlsById(id);
+        itemMatchingService.removeMatches(id);
         itemRepository.deleteById(id);
+        // Files shared with other items stay; the rest are removed by the sweeper
+        photoStore.release(photoUrls);
+        eventPublisher.publishEvent(ItemChangedEvent.deleted(item));
     }
 
     /**
-     * Get all items by status (LOST or FOUND).
+     * Get items reported at a location (case-insensitive exact match). Locations that were
+     * never reported are answered from the location index without querying the items table.
      */
     @Override
-    public List<Item> getItemsByStatus(ItemStatus status) {
-        return itemRepository.findByStatus(status);
+    public ItemPage<ItemSummary> getItemsByLocation(Long universityId, String location, ItemPageRequest pageRequest) {
+        if (!locationIndex.contains(universityId, location)) {
+            return new ItemPage<>(List.of(), null);
+        }
+        ItemFilter filter = ItemFilter.builder()
+                .universityId(universityId)
+                .location(location)
+                .build();
+        return getItems(filter, pageRequest);
     }
 
     /**
-     * Get all items by category.
+     * Known locations of a university starting with the given prefix, for autocomplete.
      */
     @Override
-    public List<Item> getItemsByCategory(String category) {
-        ItemCategory catEnum = ItemCategory.valueOf(category.toUpperCase());
-        return itemRepository.findByCategory(catEnum);
+    public List<String> getLocationSuggestions(Long universityId, String prefix, int limit) {
+        return locationIndex.autocomplete(universityId, prefix, limit);
     }
-    
+
     /**
-     * Get all items by category and status.
+     * Ranks FOUND items against the given text using the in-memory search index.
      */
     @Override
-    public List<Item> getItemsByCategoryAndStatus(String category, ItemStatus status) {
-        try {
-            ItemCategory itemCategory = ItemCategory.valueOf(category.toUpperCase());
-            return itemRepository.findByCategoryAndStatus(itemCategory, status);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid category: " + category);
-        }
+    public List<ItemSummary> getFoundItemSuggestions(String description, Long universityId, String category, int limit) {
+        return getSuggestions(description, universityId, category, ItemStatus.FOUND, limit);
     }
 
     /**
-     * Get all items from a particular location.
+     * Ranks LOST items against the given text using the in-memory search index.
      */
     @Override
-    public List<Item> getItemsByLocation(String location) {
-        // You can define this method in ItemRepository as:
-        // List<Item> findByLocationIgnoreCase(String location);
-        return itemRepository.findAll().stream()
-                .filter(item -> item.getLocation().equalsIgnoreCase(location))
-                .toList();
+    public List<ItemSummary> getLostItemSuggestions(String description, Long universityId, String category, int limit) {
+        return getSuggestions(description, universityId, category, ItemStatus.LOST, limit);
     }
 
+    /**
+     * Returns the precomputed opposite-status matches of an item, best first.
+     */
     @Override
-    public List<Item> getFoundItemSuggestions(String description) {
-        JaroWinklerSimilarity similarity = new JaroWinklerSimilarity();
-        List<Item> foundItems = itemRepository.findByStatus(ItemStatus.FOUND);
-        return foundItems.stream()
-                .filter(item -> similarity.apply(description.toLowerCase(), item.getDescription().toLowerCase()) >= 0.5)
-                .collect(Collectors.toList());
+    public List<ItemSummary> getItemMatches(Long itemId, int limit) {
+        return findSummariesInOrder(itemMatchingService.getMatchIds(itemId, limit));
     }
 
+    /**
+     * Items of a university within the radius of a point, nearest first, answered from the geo index.
+     */
     @Override
-    public List<Item> getLostItemSuggestions(String description) {
-        // Implementation for lost item suggestions
-        return null;
+    public List<ItemSummary> getNearbyItems(Long universityId, double latitude, double longitude,
+                                            double radiusMeters, ItemStatus status, int limit) {
+        validateCoordinates(latitude, longitude);
+        List<ItemGeoIndex.Hit> hits = itemGeoIndex.nearest(universityId, latitude, longitude, radiusMeters, status, limit);
+        List<ItemSummary> summaries = findSummariesInOrder(hits.stream().map(ItemGeoIndex.Hit::itemId).toList());
+        Map<Long, Double> distances = hits.stream()
+                .collect(Collectors.toMap(ItemGeoIndex.Hit::itemId, ItemGeoIndex.Hit::distanceMeters));
+        summaries.forEach(summary -> summary.setDistanceMeters(distances.get(summary.getId())));
+        return summaries;
     }
-    
+
+    /**
+     * Items of the same university with a photo that looks like one of this item's photos,
+     * closest first, answered from the perceptual hash index.
+     */
     @Override
-    public List<Item> getItemsByUniversityId(Long universityId) {
-        return itemRepository.findByUniversityId(universityId);
+    public List<ItemSummary> getVisuallySimilarItems(Long itemId, int maxDistance, ItemStatus status, int limit) {
+        List<ItemPhotoHashIndex.Hit> hits = itemPhotoHashIndex.similar(itemId, maxDistance, status, limit);
+        List<ItemSummary> summaries = findSummariesInOrder(hits.stream().map(ItemPhotoHashIndex.Hit::itemId).toList());
+        Map<Long, Integer> distances = hits.stream()
+                .collect(Collectors.toMap(ItemPhotoHashIndex.Hit::itemId, ItemPhotoHashIndex.Hit::distance));
+        summaries.forEach(summary -> summary.setPhotoDistance(distances.get(summary.getId())));
+        return summaries;
     }
-    
-    @Override
-    public List<Item> getItemsByUniversityIdAndCategory(Long universityId, String category) {
-        try {
-            ItemCategory itemCategory = ItemCategory.valueOf(category.toUpperCase());
-            return itemRepository.findByUniversityIdAndCategory(universityId, itemCategory);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid category: " + category);
+
+    /**
+     * Coordinates are optional, but must be given together and lie within WGS84 bounds.
+     */
+    static void validateCoordinates(Double latitude, Double longitude) {
+        if (latitude == null && longitude == null) {
+            return;
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Latitude and longitude must be provided together");
+        }
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Coordinates out of range: " + latitude + ", " + longitude);
         }
     }
-    
+
     @Override
-    public List<Item> getItemsByUniversityIdAndStatus(Long universityId, ItemStatus status) {
-        return itemRepository.findByUniversityIdAndStatus(universityId, status);
+    public ItemCacheStats getCacheStats() {
+        return itemQueryCache.stats();
     }
-    
+
+    /**
+     * Category x status counts of a university, read from the in-memory facet counters.
+     */
     @Override
-    public List<Item> getItemsByUniversityIdAndCategoryAndStatus(Long universityId, String category, ItemStatus status) {
-        try {
-            ItemCategory itemCategory = ItemCategory.valueOf(category.toUpperCase());
-            return itemRepository.findByUniversityIdAndCategoryAndStatus(universityId, itemCategory, status);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Invalid category: " + category);
+    public ItemFacets getFacets(Long universityId) {
+        return itemFacetCounter.facets(universityId);
+    }
+
+    private List<ItemSummary> getSuggestions(String description, Long universityId, String category, ItemStatus status, int limit) {
+        ItemCategory itemCategory = null;
+        if (category != null && !category.isBlank()) {
+            try {
+                itemCategory = ItemCategory.valueOf(category.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid category: " + category);
+            }
         }
+        List<ItemSearchIndex.Hit> hits = itemSearchIndex.search(description, universityId, status, itemCategory, limit);
+        return findSummariesInOrder(hits.stream().map(ItemSearchIndex.Hit::itemId).toList());
+    }
+
+    /**
+     * Loads summaries of the given items, keeping the order of the ids.
+     */
+    private List<ItemSummary> findSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ItemSummary> byId = itemRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ItemSummary::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 }
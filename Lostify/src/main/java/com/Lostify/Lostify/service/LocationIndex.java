@@ -0,0 +1,152 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.dto.LocationCount;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Sorted set of the distinct normalized locations of each university, with item counts.
+ * Answers location autocomplete and "is this location known" checks without touching the items table.
+ */
+@Component
+@RequiredArgsConstructor
+public class LocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocationIndex.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // universityId -> (normalized location -> entry), sorted so prefixes are a range scan
+    private final Map<Long, ConcurrentSkipListMap<String, Entry>> locations = new ConcurrentHashMap<>();
+
+    private record Entry(String location, long count) {
+    }
+
+    /**
+     * Backfills the normalized column for rows written before it existed, then seeds the index
+     * with a single GROUP BY.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        int backfilled = backfillNormalizedLocations();
+        if (backfilled > 0) {
+            logger.info("Backfilled normalized location for {} items", backfilled);
+        }
+        locations.clear();
+        List<LocationCount> counts = itemRepository.countByUniversityAndLocation();
+        for (LocationCount count : counts) {
+            if (count.universityId() != null && count.normalizedLocation() != null) {
+                universityLocations(count.universityId())
+                        .put(count.normalizedLocation(), new Entry(count.location(), count.count()));
+            }
+        }
+        logger.info("Location index built with {} distinct locations", counts.size());
+    }
+
+    // Normalized in Java rather than with LOWER(TRIM()), whose idea of whitespace differs from String.trim()
+    private int backfillNormalizedLocations() {
+        int backfilled = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = itemRepository.findUnnormalizedLocationsAfter(afterId,
+                    PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            if (rows.isEmpty()) {
+                return backfilled;
+            }
+            transactionTemplate.executeWithoutResult(status -> rows.forEach(row ->
+                    itemRepository.setNormalizedLocation((Long) row[0], Item.normalizeLocation((String) row[1]))));
+            backfilled += rows.size();
+            afterId = (Long) rows.get(rows.size() - 1)[0];
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        if (item.getUniversity() == null) {
+            return;
+        }
+        switch (event.type()) {
+            case CREATED, IMPORTED -> add(item.getUniversity().getId(), item.getLocation());
+            case DELETED, ARCHIVED -> remove(item.getUniversity().getId(), item.getLocation());
+            default -> { }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} known locations of the university starting with the given prefix,
+     * in alphabetical order of their normalized form.
+     */
+    public List<String> autocomplete(Long universityId, String prefix, int limit) {
+        ConcurrentSkipListMap<String, Entry> universityLocations = locations.get(universityId);
+        List<String> results = new ArrayList<>();
+        if (universityLocations == null || limit <= 0) {
+            return results;
+        }
+        String normalized = prefix == null ? "" : Item.normalizeLocation(prefix);
+        for (Entry entry : universityLocations.subMap(normalized, true, normalized + Character.MAX_VALUE, false).values()) {
+            results.add(entry.location());
+            if (results.size() >= limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Whether any item has been reported at this location. A null university checks every university.
+     */
+    public boolean contains(Long universityId, String location) {
+        String normalized = Item.normalizeLocation(location);
+        if (normalized == null) {
+            return false;
+        }
+        if (universityId == null) {
+            return locations.values().stream().anyMatch(map -> map.containsKey(normalized));
+        }
+        ConcurrentSkipListMap<String, Entry> universityLocations = locations.get(universityId);
+        return universityLocations != null && universityLocations.containsKey(normalized);
+    }
+
+    private void add(Long universityId, String location) {
+        String normalized = Item.normalizeLocation(location);
+        if (normalized == null) {
+            return;
+        }
+        universityLocations(universityId).merge(normalized, new Entry(location.trim(), 1),
+                (existing, added) -> new Entry(existing.location(), existing.count() + 1));
+    }
+
+    private void remove(Long universityId, String location) {
+        String normalized = Item.normalizeLocation(location);
+        ConcurrentSkipListMap<String, Entry> universityLocations = locations.get(universityId);
+        if (normalized == null || universityLocations == null) {
+            return;
+        }
+        universityLocations.computeIfPresent(normalized,
+                (key, existing) -> existing.count() <= 1 ? null : new Entry(existing.location(), existing.count() - 1));
+    }
+
+    private ConcurrentSkipListMap<String, Entry> universityLocations(Long universityId) {
+        return locations.computeIfAbsent(universityId, id -> new ConcurrentSkipListMap<>());
+    }
+}
@@ -0,0 +1,284 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ConversationEvent;
+import com.Lostify.Lostify.dto.ConversationReadPush;
+import com.Lostify.Lostify.dto.MessageDTO;
+import com.Lostify.Lostify.dto.MessagePush;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes messaging changes to the open Server-Sent Events streams of each user, once the
+ * change has been committed.
+ * <p>
+ * Every stream has a small bounded queue drained by a shared pool, so a commit only enqueues
+ * and never waits on a network write. A stream whose queue overflows is closed rather than
+ * buffered without bound; the client reconnects and reloads its conversations.
+ * <p>
+ * A send that has not returned after a few seconds means a client that stopped reading. A
+ * periodic check closes such a stream and lends the pool a replacement thread until the stuck write
+ * gives up, so one slow client cannot hold up delivery to everybody else.
+ */
+@Service
+public class MessageStreamBroker {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStreamBroker.class);
+
+    private static final int POOL_SIZE = 4;
+    // Markers replacing the start time of a send that was given up on while in flight
+    private static final long CLOSED_IN_FLIGHT = -1;
+    private static final long STALLED = -2;
+
+    private final Map<Long, Set<Session>> sessions = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final int maxSessionsPerUser;
+    private final long sendTimeoutMillis;
+    private int stalledSends;
+
+    public MessageStreamBroker(@Value("${messaging.stream.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${messaging.stream.queue-capacity:64}") int queueCapacity,
+                               @Value("${messaging.stream.max-sessions-per-user:5}") int maxSessionsPerUser,
+                               @Value("${messaging.stream.send-timeout-ms:5000}") long sendTimeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        this.maxSessionsPerUser = maxSessionsPerUser;
+        this.sendTimeoutMillis = sendTimeoutMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(POOL_SIZE, POOL_SIZE, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "message-stream-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        sessions.values().forEach(userSessions -> userSessions.forEach(Session::close));
+    }
+
+    /**
+     * Opens a stream for the user. The oldest stream is closed if the user already has the maximum.
+     */
+    public SseEmitter open(Long userId) {
+        Session session = new Session(userId, new SseEmitter(timeoutMillis));
+        Set<Session> userSessions = sessions.compute(userId, (id, existing) -> {
+            Set<Session> set = existing == null ? new CopyOnWriteArraySet<>() : existing;
+            set.add(session);
+            return set;
+        });
+        Iterator<Session> oldest = userSessions.iterator();
+        while (userSessions.size() > maxSessionsPerUser && oldest.hasNext()) {
+            oldest.next().close();
+        }
+
+        SseEmitter emitter = session.emitter;
+        emitter.onCompletion(session::close);
+        emitter.onTimeout(session::close);
+        emitter.onError(error -> session.close());
+        // Sent at once so the response is committed and the client knows it is connected
+        session.offer(SseEmitter.event().name("ready").data(""));
+        return emitter;
+    }
+
+    public int openStreams() {
+        return sessions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConversationEvent(ConversationEvent event) {
+        switch (event.type()) {
+            case MESSAGE_SENT -> {
+                MessageDTO received = event.message().toBuilder().isCurrentUserSender(false).build();
+                push(event.otherUserId(), "message", new MessagePush(event.conversationId(), received, 1));
+                push(event.userId(), "message", new MessagePush(event.conversationId(), event.message(), 0));
+            }
+            case READ -> push(event.userId(), "read", new ConversationReadPush(event.conversationId(), event.unreadCount()));
+        }
+    }
+
+    /**
+     * Keeps idle streams open through proxies and finds the ones whose client has gone.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        sessions.values().forEach(userSessions ->
+                userSessions.forEach(session -> session.offer(SseEmitter.event().comment("keep-alive"))));
+    }
+
+    /**
+     * Closes the streams whose current send has been in flight longer than the send timeout.
+     */
+    @Scheduled(fixedDelayString = "${messaging.stream.stall-check-ms:1000}")
+    public void closeStalledStreams() {
+        long now = System.currentTimeMillis();
+        sessions.values().forEach(userSessions -> userSessions.forEach(session -> session.abandonStalledSend(now)));
+    }
+
+    // Grows the pool by one thread per stuck send, up to double its size, and shrinks it back as they return
+    private synchronized void adjustStalledSends(int delta) {
+        stalledSends += delta;
+        int size = POOL_SIZE + Math.min(stalledSends, POOL_SIZE);
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else if (size < executor.getMaximumPoolSize()) {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    private void push(Long userId, String name, Object payload) {
+        Set<Session> userSessions = userId == null ? null : sessions.get(userId);
+        if (userSessions != null) {
+            userSessions.forEach(session -> session.offer(SseEmitter.event().name(name).data(payload)));
+        }
+    }
+
+    private final class Session {
+        final Long userId;
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> queue = new ArrayBlockingQueue<>(queueCapacity);
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Start of the send in flight, 0 when none is
+        final AtomicLong sendStartedAt = new AtomicLong();
+
+        Session(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                logger.debug("Closing a slow message stream of user {}", userId);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        // At most one drain per session runs at a time, which keeps its events in order
+        void schedule() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close();
+            }
+        }
+
+        void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = queue.poll()) != null) {
+                    send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+            }
+            // An event offered after the last poll but before the flag was cleared
+            if (!closed.get() && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        void send(SseEmitter.SseEventBuilder event) throws IOException {
+            long startedAt = System.currentTimeMillis();
+            sendStartedAt.set(startedAt);
+            try {
+                emitter.send(event);
+            } finally {
+                long state = sendStartedAt.getAndSet(0);
+                if (state == STALLED) {
+                    adjustStalledSends(-1);
+                }
+                if (state != startedAt) {
+                    // Closed while this send held the emitter, which completing has to wait for
+                    complete();
+                }
+            }
+        }
+
+        // Closes the session if its send has been in flight too long; the emitter is completed once the send returns
+        void abandonStalledSend(long now) {
+            long startedAt = sendStartedAt.get();
+            if (startedAt <= 0 || now - startedAt < sendTimeoutMillis
+                    || !sendStartedAt.compareAndSet(startedAt, STALLED)) {
+                return;
+            }
+            logger.debug("Closing a stalled message stream of user {}", userId);
+            adjustStalledSends(1);
+            detach();
+        }
+
+        void close() {
+            if (!detach()) {
+                return;
+            }
+            // A send in flight holds the emitter; its thread completes it instead of blocking this one
+            long state;
+            do {
+                state = sendStartedAt.get();
+            } while (state > 0 && !sendStartedAt.compareAndSet(state, CLOSED_IN_FLIGHT));
+            if (state == 0) {
+                complete();
+            }
+        }
+
+        boolean detach() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            queue.clear();
+            sessions.computeIfPresent(userId, (id, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            return true;
+        }
+
+        void complete() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                // Already completed by the container
+            }
+        }
+    }
+}
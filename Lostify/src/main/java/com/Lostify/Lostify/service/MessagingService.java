@@ -1,20 +1,42 @@
 package com.Lostify.Lostify.service;
 
+import com.Lostify.Lostify.domain.ConversationEvent;
 import com.Lostify.Lostify.model.*;
 import com.Lostify.Lostify.repository.*;
 import com.Lostify.Lostify.dto.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MessagingService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MessagingService.class);
+
+    private static final int MAX_CREATE_ATTEMPTS = 3;
+
     @Autowired
     private ConversationRepository conversationRepository;
 
@@ -27,125 +49,311 @@ public class MessagingService {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private UnreadCounter unreadCounter;
+
+    @Autowired
+    private ConversationCache conversationCache;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private InboxEntryRepository inboxEntryRepository;
+
+    // For the methods that run outside the class-level transaction, one short transaction per step
+    private TransactionTemplate transaction;
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Runs without a surrounding transaction, like {@link #resolveConversationId}; the conversation
+     * is read for the response once it exists.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ConversationDTO startOrGetConversation(Long currentUserId, Long otherUserId, Long itemId) {
-        User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("Current user not found"));
-        User otherUser = userRepository.findById(otherUserId)
-                .orElseThrow(() -> new RuntimeException("Other user not found"));
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new RuntimeException("Item not found"));
+        Long conversationId = findOrCreateConversation(currentUserId, otherUserId, itemId);
+        return transaction.execute(status -> convertToConversationDTO(
+                conversationRepository.findById(conversationId)
+                        .orElseThrow(() -> new RuntimeException("Conversation not found")),
+                currentUserId));
+    }
 
-        List<Conversation> existingConversations = conversationRepository
-                .findByUsersAndItem(currentUser, otherUser, item);
-
-        Conversation conversation;
-        if (!existingConversations.isEmpty()) {
-            // Use the first (oldest) conversation
-            conversation = existingConversations.get(0);
-            
-            // Clean up duplicates if they exist
-            if (existingConversations.size() > 1) {
-                for (int i = 1; i < existingConversations.size(); i++) {
-                    Conversation duplicate = existingConversations.get(i);
-                    // Move messages from duplicate to main conversation if needed
-                    List<ConversationMessage> duplicateMessages = messageRepository.findByConversationOrderBySentAtAsc(duplicate);
-                    for (ConversationMessage msg : duplicateMessages) {
-                        msg.setConversation(conversation);
-                        messageRepository.save(msg);
-                    }
-                    // Delete the duplicate conversation
-                    conversationRepository.delete(duplicate);
-                }
-            }
-        } else {
-            // Ensure consistent user ordering to prevent duplicates
-            User user1, user2;
-            if (currentUser.getId() < otherUser.getId()) {
-                user1 = currentUser;
-                user2 = otherUser;
-            } else {
-                user1 = otherUser;
-                user2 = currentUser;
-            }
-            
-            conversation = Conversation.builder()
-                    .user1(user1)
-                    .user2(user2)
-                    .item(item)
-                    .build();
-            conversation = conversationRepository.save(conversation);
+    /**
+     * The id of the conversation between two users about an item, created if there is none.
+     * Answered from the cache once the conversation is known, without touching the database.
+     * <p>
+     * Runs without a surrounding transaction, so creating the conversation commits on the
+     * request's only connection instead of needing a second one while the first stays open.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Long resolveConversationId(Long currentUserId, Long otherUserId, Long itemId) {
+        Long conversationId = conversationCache.findId(currentUserId, otherUserId, itemId);
+        if (conversationId != null) {
+            return conversationId;
         }
+        return findOrCreateConversation(currentUserId, otherUserId, itemId);
+    }
 
-        return convertToConversationDTO(conversation, currentUser);
+    /**
+     * Fills the inbox summary, read watermarks and inbox rows of conversations that predate them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillConversationSummaries() {
+        int updated = conversationRepository.backfillSummaries();
+        if (updated > 0) {
+            logger.info("Filled the inbox summary of {} conversations", updated);
+        }
+        int watermarked = conversationRepository.backfillReadWatermarks();
+        if (watermarked > 0) {
+            logger.info("Derived read watermarks of {} conversations", watermarked);
+        }
+        int inboxRows = inboxEntryRepository.backfill();
+        if (inboxRows > 0) {
+            logger.info("Added {} missing inbox rows", inboxRows);
+        }
     }
 
+    /**
+     * Sends a message to a conversation the sender takes part in. With the participants and the
+     * sender cached, this is one summary UPDATE, one inbox UPDATE and one message INSERT.
+     */
     public MessageDTO sendMessage(Long conversationId, Long senderId, String content) {
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-        User sender = userRepository.findById(senderId)
-                .orElseThrow(() -> new RuntimeException("Sender not found"));
+        ConversationParticipants participants = findParticipants(conversationId);
+        Long recipientId = participants.other(senderId);
+        if (recipientId == null) {
+            throw new RuntimeException("Conversation not found");
+        }
+        UserDTO sender = userCache.findUser(senderId);
+        if (sender == null) {
+            throw new RuntimeException("Sender not found");
+        }
+        User senderReference = userRepository.getReferenceById(senderId);
+
+        // The summary is updated first, so its row lock orders this send against a concurrent read
+        LocalDateTime sentAt = LocalDateTime.now();
+        if (conversationRepository.recordMessage(conversationId, senderReference, preview(content), sentAt) == 0) {
+            // Deleted since it was cached
+            conversationCache.evict(conversationId);
+            throw new RuntimeException("Conversation not found");
+        }
+        inboxEntryRepository.touch(conversationId, sentAt);
 
         ConversationMessage message = ConversationMessage.builder()
-                .conversation(conversation)
-                .sender(sender)
+                .conversation(conversationRepository.getReferenceById(conversationId))
+                .sender(senderReference)
                 .content(content)
+                .sentAt(sentAt)
                 .build();
 
         message = messageRepository.save(message);
-        conversationRepository.save(conversation); // This will update lastMessageAt
 
-        return convertToMessageDTO(message, sender);
+        MessageDTO messageDTO = MessageDTO.builder()
+                .id(message.getId())
+                .content(message.getContent())
+                .sender(sender)
+                .sentAt(message.getSentAt())
+                .isRead(false)
+                .isCurrentUserSender(true)
+                .build();
+        eventPublisher.publishEvent(ConversationEvent.messageSent(conversationId, senderId, recipientId, messageDTO));
+        return messageDTO;
     }
 
-    public List<MessageDTO> getConversationMessages(Long conversationId, Long currentUserId) {
-        Conversation conversation = conversationRepository.findById(conversationId)
+    /**
+     * Returns up to {@code limit} messages of a conversation: the newest ones, those before
+     * {@code beforeId}, or those after {@code afterId}. Each page is a range of the
+     * (conversation_id, id) index, so its cost does not grow with the conversation.
+     */
+    public MessagePage getConversationMessages(Long conversationId, Long currentUserId,
+                                               Long beforeId, Long afterId, int limit) {
+        if (beforeId != null && afterId != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        ConversationReadState readState = conversationRepository.findReadState(conversationId)
+                .filter(state -> state.hasParticipant(currentUserId))
                 .orElseThrow(() -> new RuntimeException("Conversation not found"));
-        User currentUser = userRepository.findById(currentUserId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
 
-        List<ConversationMessage> messages = messageRepository
-                .findByConversationOrderBySentAtAsc(conversation);
+        // One extra row tells whether another page follows
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<ConversationMessage> messages;
+        if (afterId != null) {
+            messages = messageRepository.findAfter(conversationId, afterId, page);
+        } else if (beforeId != null) {
+            messages = messageRepository.findBefore(conversationId, beforeId, page);
+        } else {
+            messages = messageRepository.findLatest(conversationId, page);
+        }
+
+        boolean hasMore = messages.size() > limit;
+        if (hasMore) {
+            messages = messages.subList(0, limit);
+        }
+        Long nextCursor = hasMore ? messages.get(messages.size() - 1).getId() : null;
+        if (afterId == null) {
+            messages = new ArrayList<>(messages);
+            Collections.reverse(messages);
+        }
 
-        return messages.stream()
-                .map(message -> convertToMessageDTO(message, currentUser))
+        List<MessageDTO> dtos = messages.stream()
+                .map(message -> convertToMessageDTO(message, currentUserId,
+                        readState.isRead(message.getId(), message.getSender().getId())))
                 .collect(Collectors.toList());
+        return new MessagePage(dtos, nextCursor);
     }
 
-    public List<ConversationDTO> getUserConversations(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Returns up to {@code limit} conversations of the user, most recent first, continuing after
+     * {@code cursor} when given. The page is a range of the user's inbox rows, so its cost does
+     * not grow with the number of conversations.
+     */
+    public InboxPage getUserConversations(Long userId, String cursor, int limit) {
+        InboxCursor after = InboxCursor.decode(cursor);
+
+        // One extra row tells whether another page follows
+        Pageable page = PageRequest.of(0, limit + 1);
+        List<InboxEntry> entries = after == null
+                ? inboxEntryRepository.findLatest(userId, page)
+                : inboxEntryRepository.findBefore(userId, after.lastMessageAt(), after.conversationId(), page);
 
-        List<Conversation> conversations = conversationRepository
-                .findByUserOrderByLastMessageAtDesc(user);
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            InboxEntry last = entries.get(entries.size() - 1);
+            nextCursor = new InboxCursor(last.getLastMessageAt(), last.getConversationId()).encode();
+        }
+        if (entries.isEmpty()) {
+            return new InboxPage(Collections.emptyList(), null);
+        }
 
-        return conversations.stream()
-                .map(conversation -> convertToConversationDTO(conversation, user))
+        Map<Long, Conversation> conversations = conversationRepository.findInboxByIds(
+                        entries.stream().map(InboxEntry::getConversationId).toList())
+                .stream()
+                .collect(Collectors.toMap(Conversation::getId, Function.identity()));
+        List<ConversationDTO> dtos = entries.stream()
+                .map(entry -> conversations.get(entry.getConversationId()))
+                .filter(Objects::nonNull)
+                .map(conversation -> convertToConversationDTO(conversation, userId))
                 .collect(Collectors.toList());
+        return new InboxPage(dtos, nextCursor);
     }
 
-    public void markMessagesAsRead(Long conversationId, Long userId) {
-        Conversation conversation = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    /**
+     * Marks the conversation read up to {@code upToMessageId}, or up to its newest message when
+     * null, by moving the user's read watermark. No message rows are touched, so the cost does
+     * not depend on how many messages were unread.
+     */
+    public void markMessagesAsRead(Long conversationId, Long userId, Long upToMessageId) {
+        Long latestId = messageRepository.findLatestId(conversationId).orElse(null);
+        if (latestId == null) {
+            return;
+        }
+        // Never past the newest message, or later messages would arrive already read
+        long lastReadId = upToMessageId == null ? latestId : Math.min(upToMessageId, latestId);
+
+        // Locked first, so no send can change the count between here and the update
+        Integer previousUnread = conversationRepository.lockUnreadCount(conversationId, userId);
+        if (previousUnread == null || conversationRepository.advanceReadWatermark(conversationId, userId, lastReadId) == 0) {
+            return;
+        }
+        int unread = conversationRepository.lockUnreadCount(conversationId, userId);
+        eventPublisher.publishEvent(ConversationEvent.read(conversationId, userId, previousUnread, unread));
+    }
+
+    /**
+     * Total unread messages of the user, from the in-memory counters.
+     */
+    public long getUnreadTotal(Long userId) {
+        return unreadCounter.total(userId);
+    }
+
+    // Called without a transaction. Every step runs in a template of its own: a repository call
+    // made outside one would tie the request's entity manager to this scope, and the next template
+    // would then open a second one on another connection.
+    private Long findOrCreateConversation(Long currentUserId, Long otherUserId, Long itemId) {
+        // Lowest id first, the order the unique key is defined in
+        Long user1Id = Math.min(currentUserId, otherUserId);
+        Long user2Id = Math.max(currentUserId, otherUserId);
+
+        ConversationParticipants participants = transaction.execute(
+                status -> findConversation(currentUserId, otherUserId, itemId));
+        for (int attempt = 0; participants == null; attempt++) {
+            if (attempt == MAX_CREATE_ATTEMPTS) {
+                throw new RuntimeException("Conversation could not be created");
+            }
+            try {
+                createConversation(user1Id, user2Id, itemId);
+            } catch (PessimisticLockingFailureException e) {
+                // Concurrent upserts of one key can deadlock; the loser is rolled back and tries again
+                logger.debug("Creating conversation for item {} failed, retrying: {}", itemId, e.getMessage());
+                continue;
+            }
+            // Empty only if it was removed again with its item
+            participants = transaction.execute(status -> conversationRepository.lockByParticipants(user1Id, user2Id, itemId)
+                    .map(conversation -> new ConversationParticipants(conversation.getId(), user1Id, user2Id, itemId))
+                    .orElse(null));
+        }
+
+        conversationCache.put(participants);
+        return participants.conversationId();
+    }
+
+    private ConversationParticipants findConversation(Long currentUserId, Long otherUserId, Long itemId) {
+        User currentUser = userRepository.findById(currentUserId)
+                .orElseThrow(() -> new RuntimeException("Current user not found"));
+        User otherUser = userRepository.findById(otherUserId)
+                .orElseThrow(() -> new RuntimeException("Other user not found"));
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new RuntimeException("Item not found"));
 
-        List<ConversationMessage> unreadMessages = messageRepository
-                .findUnreadMessages(conversation, user);
+        // Oldest first; a pair stored in the other order predates normalization
+        List<Conversation> existing = conversationRepository.findByUsersAndItem(currentUser, otherUser, item);
+        if (existing.isEmpty()) {
+            return null;
+        }
+        Conversation conversation = existing.get(0);
+        return new ConversationParticipants(conversation.getId(),
+                conversation.getUser1().getId(), conversation.getUser2().getId(), itemId);
+    }
 
-        unreadMessages.forEach(message -> message.setRead(true));
-        messageRepository.saveAll(unreadMessages);
+    /**
+     * Creates the conversation and both inbox rows in a transaction of their own, so a deadlock
+     * between concurrent creations rolls back only this attempt.
+     * A concurrent creation of the same conversation makes it a no-op instead of a duplicate.
+     */
+    private void createConversation(Long user1Id, Long user2Id, Long itemId) {
+        transaction.executeWithoutResult(status -> {
+            conversationRepository.insertIfAbsent(user1Id, user2Id, itemId, LocalDateTime.now());
+            conversationRepository.lockByParticipants(user1Id, user2Id, itemId).ifPresent(conversation -> {
+                inboxEntryRepository.insertIfAbsent(user1Id, conversation.getId(), conversation.getLastMessageAt());
+                inboxEntryRepository.insertIfAbsent(user2Id, conversation.getId(), conversation.getLastMessageAt());
+            });
+        });
     }
 
-    private ConversationDTO convertToConversationDTO(Conversation conversation, User currentUser) {
-        User otherUser = conversation.getUser1().equals(currentUser) 
-                ? conversation.getUser2() 
-                : conversation.getUser1();
+    private ConversationParticipants findParticipants(Long conversationId) {
+        ConversationParticipants participants = conversationCache.findParticipants(conversationId);
+        if (participants == null) {
+            participants = conversationRepository.findParticipants(conversationId)
+                    .orElseThrow(() -> new RuntimeException("Conversation not found"));
+            conversationCache.put(participants);
+        }
+        return participants;
+    }
 
-        List<ConversationMessage> messages = messageRepository
-                .findByConversationOrderBySentAtAsc(conversation);
+    private ConversationDTO convertToConversationDTO(Conversation conversation, Long currentUserId) {
+        boolean isUser1 = conversation.getUser1().getId().equals(currentUserId);
+        User otherUser = isUser1 ? conversation.getUser2() : conversation.getUser1();
 
-        String lastMessage = messages.isEmpty() ? "" : messages.get(messages.size() - 1).getContent();
-        long unreadCount = messageRepository.countUnreadMessages(conversation, currentUser);
+        String lastMessage = conversation.getLastMessagePreview() == null ? "" : conversation.getLastMessagePreview();
+        long unreadCount = isUser1 ? conversation.getUser1UnreadCount() : conversation.getUser2UnreadCount();
+        User lastSender = conversation.getLastSender();
 
         return ConversationDTO.builder()
                 .id(conversation.getId())
@@ -154,27 +362,35 @@ public class MessagingService {
                 .lastMessage(lastMessage)
                 .lastMessageAt(conversation.getLastMessageAt())
                 .unreadCount(unreadCount)
+                .isCurrentUserSender(lastSender != null && lastSender.getId().equals(currentUserId))
                 .build();
     }
 
-    private MessageDTO convertToMessageDTO(ConversationMessage message, User currentUser) {
+    // Cut on a character boundary, never inside a surrogate pair
+    private static String preview(String content) {
+        if (content == null || content.length() <= Conversation.PREVIEW_LENGTH) {
+            return content;
+        }
+        int end = Conversation.PREVIEW_LENGTH;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+
+    private MessageDTO convertToMessageDTO(ConversationMessage message, Long currentUserId, boolean isRead) {
         return MessageDTO.builder()
                 .id(message.getId())
                 .content(message.getContent())
                 .sender(convertToUserDTO(message.getSender()))
                 .sentAt(message.getSentAt())
-                .isRead(message.isRead())
-                .isCurrentUserSender(message.getSender().equals(currentUser))
+                .isRead(isRead)
+                .isCurrentUserSender(message.getSender().getId().equals(currentUserId))
                 .build();
     }
 
     private UserDTO convertToUserDTO(User user) {
-        return UserDTO.builder()
-                .id(user.getId())
-                .username(user.getUsername())
-                .email(user.getEmail())
-                .phoneNumber(user.getPhoneNumber())
-                .build();
+        return UserDTO.from(user);
     }
 
     private ItemDTO convertToItemDTO(Item item) {
@@ -0,0 +1,55 @@
+package com.Lostify.Lostify.service;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 64-bit difference hash (dHash) of an image: the picture is reduced to 9x8 grey pixels and
+ * each bit records whether a pixel is brighter than its right neighbour. Recompression,
+ * resizing and small crops change only a few bits, so near-duplicates are close in Hamming distance.
+ */
+final class PerceptualHash {
+
+    private static final int WIDTH = 9;
+    private static final int HEIGHT = 8;
+    // Decoded size before the final reduction; enough for the halving steps to average out noise
+    private static final int DECODE_SIZE = 64;
+
+    private PerceptualHash() {
+    }
+
+    static long dHash(Path file) throws IOException {
+        BufferedImage reduced = PhotoVariantService.scale(PhotoVariantService.decode(file, DECODE_SIZE), DECODE_SIZE);
+
+        BufferedImage grid = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = grid.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(reduced, 0, 0, WIDTH, HEIGHT, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (luminance(grid.getRGB(x, y)) > luminance(grid.getRGB(x + 1, y))) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static int luminance(int rgb) {
+        return (((rgb >> 16) & 0xff) * 299 + ((rgb >> 8) & 0xff) * 587 + (rgb & 0xff) * 114) / 1000;
+    }
+}
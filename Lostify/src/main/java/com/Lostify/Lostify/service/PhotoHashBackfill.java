@@ -0,0 +1,84 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.repository.ItemRepository;
+import com.Lostify.Lostify.repository.PhotoBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Computes the perceptual hash of stored photos that have none, such as blobs from before
+ * hashing existed, and re-indexes the items that use them so they take part in visual matching.
+ * <p>
+ * Each run hashes one batch, continuing after the last blob it looked at and starting over once
+ * the end is reached, so files that cannot be decoded are retried only once per pass.
+ */
+@Service
+public class PhotoHashBackfill {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoHashBackfill.class);
+
+    private final PhotoStore photoStore;
+    private final PhotoBlobRepository photoBlobRepository;
+    private final ItemRepository itemRepository;
+    private final ItemPhotoHashIndex photoHashIndex;
+
+    private final boolean enabled;
+    private final int batchSize;
+    // Last blob looked at; only the scheduler thread touches it
+    private String cursor = "";
+
+    public PhotoHashBackfill(PhotoStore photoStore,
+                             PhotoBlobRepository photoBlobRepository,
+                             ItemRepository itemRepository,
+                             ItemPhotoHashIndex photoHashIndex,
+                             @Value("${photo.hash-backfill.enabled:true}") boolean enabled,
+                             @Value("${photo.hash-backfill.batch-size:100}") int batchSize) {
+        this.photoStore = photoStore;
+        this.photoBlobRepository = photoBlobRepository;
+        this.itemRepository = itemRepository;
+        this.photoHashIndex = photoHashIndex;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${photo.hash-backfill.initial-delay-ms:300000}",
+               fixedDelayString = "${photo.hash-backfill.interval-ms:600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            backfill();
+        }
+    }
+
+    /**
+     * Hashes one batch of blobs without a hash and re-indexes their items.
+     * Returns the number of blobs hashed.
+     */
+    public int backfill() {
+        List<String> filenames = photoBlobRepository.findFilenamesWithoutHash(cursor, PageRequest.of(0, batchSize));
+        cursor = filenames.size() < batchSize ? "" : filenames.get(filenames.size() - 1);
+
+        List<String> hashedUrls = new ArrayList<>();
+        for (String filename : filenames) {
+            Path file = photoStore.uploadPath().resolve(filename);
+            Long dhash = Files.isRegularFile(file) ? PhotoStore.perceptualHash(file) : null;
+            if (dhash != null && photoBlobRepository.setDhash(filename, dhash) > 0) {
+                hashedUrls.add(PhotoStore.URL_PREFIX + filename);
+            }
+        }
+        if (hashedUrls.isEmpty()) {
+            return 0;
+        }
+        itemRepository.findAllWithPhotoUrlIn(hashedUrls).forEach(photoHashIndex::index);
+        logger.info("Computed perceptual hashes of {} photos", hashedUrls.size());
+        return hashedUrls.size();
+    }
+}
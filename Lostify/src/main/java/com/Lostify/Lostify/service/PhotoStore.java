@@ -0,0 +1,203 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.config.FileUploadConfig;
+import com.Lostify.Lostify.model.PhotoBlob;
+import com.Lostify.Lostify.repository.PhotoBlobRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed storage of uploaded photos: each file is named after the SHA-256 of its
+ * bytes, so identical uploads share one file, and a {@link PhotoBlob} row counts the item
+ * photos that use it.
+ * <p>
+ * Storing and removing a blob happen under a per-name lock, so the sweeper can never remove
+ * a file that an upload has just found and reused.
+ */
+@Service
+@RequiredArgsConstructor
+public class PhotoStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStore.class);
+
+    static final String URL_PREFIX = "/uploads/";
+
+    private final PhotoBlobRepository photoBlobRepository;
+    private final FileUploadConfig fileUploadConfig;
+    private final UploadCache uploadCache;
+    private final Object[] locks = newLocks(64);
+
+    /**
+     * Moves a fully written temporary file in the upload directory to its content address,
+     * or drops it if that content is already stored. Returns the photo URL.
+     * The blob starts unreferenced until an item is saved with it.
+     */
+    public String store(Path temporary, String extension) throws IOException {
+        long size = Files.size(temporary);
+        String sha256 = sha256(temporary);
+        String filename = sha256 + extension;
+        Path target = temporary.resolveSibling(filename);
+        // Decoding is slow, so it happens outside the lock and only for content not stored yet.
+        // A blob swept meanwhile is stored without a hash, which PhotoHashBackfill fills in later.
+        Long dhash = photoBlobRepository.existsById(filename) ? null : perceptualHash(temporary);
+
+        synchronized (lockFor(filename)) {
+            Instant now = Instant.now();
+            PhotoBlob blob = photoBlobRepository.findById(filename).orElse(null);
+            if (blob == null) {
+                photoBlobRepository.save(PhotoBlob.builder()
+                        .filename(filename)
+                        .sha256(sha256)
+                        .size(size)
+                        .dhash(dhash)
+                        .refCount(0)
+                        .createdAt(now)
+                        .unreferencedSince(now)
+                        .build());
+            } else if (blob.getRefCount() == 0) {
+                // Restart the grace period, the upload is about to be referenced
+                blob.setUnreferencedSince(now);
+                photoBlobRepository.save(blob);
+            }
+
+            if (Files.exists(target)) {
+                Files.delete(temporary);
+            } else {
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        return URL_PREFIX + filename;
+    }
+
+    /**
+     * Counts one reference per URL; URLs that are not stored blobs are ignored.
+     */
+    public void retain(Collection<String> photoUrls) {
+        adjust(photoUrls, 1);
+    }
+
+    public void release(Collection<String> photoUrls) {
+        adjust(photoUrls, -1);
+    }
+
+    /**
+     * Removes an unreferenced blob past its grace period, together with its variants.
+     * Returns false if the blob was uploaded or referenced again in the meantime.
+     */
+    public boolean deleteIfUnreferenced(String filename, Instant unreferencedBefore) {
+        synchronized (lockFor(filename)) {
+            if (photoBlobRepository.deleteIfUnreferenced(filename, unreferencedBefore) == 0) {
+                return false;
+            }
+            deleteFiles(filename);
+            return true;
+        }
+    }
+
+    /**
+     * Removes a file of the upload directory that has no blob row. Returns false if a row
+     * appeared since the caller looked.
+     */
+    public boolean deleteOrphan(String filename) {
+        synchronized (lockFor(filename)) {
+            if (photoBlobRepository.existsById(filename)) {
+                return false;
+            }
+            deleteQuietly(filename);
+            return true;
+        }
+    }
+
+    public Path uploadPath() {
+        return Paths.get(fileUploadConfig.getUploadDir()).toAbsolutePath().normalize();
+    }
+
+    // Null when the file cannot be decoded as an image
+    static Long perceptualHash(Path file) {
+        try {
+            return PerceptualHash.dHash(file);
+        } catch (IOException | RuntimeException e) {
+            logger.debug("No perceptual hash for {}: {}", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void adjust(Collection<String> photoUrls, int sign) {
+        if (photoUrls == null || photoUrls.isEmpty()) {
+            return;
+        }
+        // An item may list the same photo twice; each listing is one item_photos row
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String url : photoUrls) {
+            if (url != null && url.startsWith(URL_PREFIX)) {
+                counts.merge(url.substring(URL_PREFIX.length()), 1, Integer::sum);
+            }
+        }
+        Instant now = Instant.now();
+        counts.forEach((filename, count) -> photoBlobRepository.adjustRefCount(filename, sign * count, now));
+    }
+
+    private void deleteFiles(String filename) {
+        deleteQuietly(filename);
+        int dot = filename.lastIndexOf('.');
+        String baseName = dot > 0 ? filename.substring(0, dot) : filename;
+        deleteQuietly(baseName + PhotoVariantService.THUMBNAIL_SUFFIX);
+        deleteQuietly(baseName + PhotoVariantService.MEDIUM_SUFFIX);
+    }
+
+    private void deleteQuietly(String filename) {
+        try {
+            Files.deleteIfExists(uploadPath().resolve(filename));
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", filename, e.getMessage());
+        }
+        uploadCache.remove(filename);
+    }
+
+    private Object lockFor(String filename) {
+        return locks[Math.floorMod(filename.hashCode(), locks.length)];
+    }
+
+    private static Object[] newLocks(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        try (FileChannel channel = FileChannel.open(file)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
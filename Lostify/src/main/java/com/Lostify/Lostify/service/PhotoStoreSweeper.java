@@ -0,0 +1,163 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.repository.PhotoBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Frees disk space held by photos nothing refers to any more.
+ * <p>
+ * Each run first removes blobs whose reference count has been zero for longer than the grace
+ * period, re-counting their {@code item_photos} rows before deleting so that a drifted counter
+ * is repaired rather than trusted. It then scans the upload directory for files without a blob
+ * row (uploads from before the content-addressed store, stray variants, temporary files of
+ * interrupted uploads) that no item uses. Work is done in batches with a pause in between and
+ * a cap on deletions per run, so a large backlog is drained gradually.
+ */
+@Service
+public class PhotoStoreSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStoreSweeper.class);
+
+    private final PhotoStore photoStore;
+    private final PhotoBlobRepository photoBlobRepository;
+
+    private final boolean enabled;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final int maxDeletesPerRun;
+    private final long pauseMillis;
+
+    public PhotoStoreSweeper(PhotoStore photoStore,
+                             PhotoBlobRepository photoBlobRepository,
+                             @Value("${photo.gc.enabled:true}") boolean enabled,
+                             @Value("${photo.gc.grace-minutes:60}") long graceMinutes,
+                             @Value("${photo.gc.batch-size:100}") int batchSize,
+                             @Value("${photo.gc.max-deletes-per-run:1000}") int maxDeletesPerRun,
+                             @Value("${photo.gc.pause-ms:200}") long pauseMillis) {
+        this.photoStore = photoStore;
+        this.photoBlobRepository = photoBlobRepository;
+        this.enabled = enabled;
+        this.gracePeriod = Duration.ofMinutes(graceMinutes);
+        this.batchSize = batchSize;
+        this.maxDeletesPerRun = maxDeletesPerRun;
+        this.pauseMillis = pauseMillis;
+    }
+
+    @Scheduled(initialDelayString = "${photo.gc.initial-delay-ms:900000}",
+               fixedDelayString = "${photo.gc.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    /**
+     * Runs both passes once. Returns the number of files removed (variants not counted).
+     */
+    public int sweep() {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        int deleted = sweepBlobs(cutoff);
+        if (deleted < maxDeletesPerRun) {
+            deleted += sweepOrphans(cutoff, maxDeletesPerRun - deleted);
+        }
+        if (deleted > 0) {
+            logger.info("Removed {} unreferenced photos", deleted);
+        }
+        return deleted;
+    }
+
+    private int sweepBlobs(Instant cutoff) {
+        int deleted = 0;
+        while (deleted < maxDeletesPerRun) {
+            List<String> filenames = photoBlobRepository.findUnreferenced(cutoff, PageRequest.of(0, batchSize));
+            for (String filename : filenames) {
+                // Every candidate leaves the result set: deleted, recounted, or touched by an upload
+                long references = photoBlobRepository.countReferences(PhotoStore.URL_PREFIX + filename);
+                if (references > 0) {
+                    logger.warn("Photo {} had reference count 0 but {} references, repairing", filename, references);
+                    photoBlobRepository.setRefCount(filename, (int) references);
+                } else if (photoStore.deleteIfUnreferenced(filename, cutoff)) {
+                    deleted++;
+                }
+            }
+            if (filenames.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    private int sweepOrphans(Instant cutoff, int budget) {
+        int deleted = 0;
+        List<String> batch = new ArrayList<>(batchSize);
+        try (DirectoryStream<Path> directory = Files.newDirectoryStream(photoStore.uploadPath())) {
+            for (Path file : directory) {
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile() || attributes.lastModifiedTime().toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                batch.add(file.getFileName().toString());
+                if (batch.size() == batchSize) {
+                    deleted += deleteOrphans(batch, budget - deleted);
+                    batch.clear();
+                    if (deleted >= budget || !pause()) {
+                        return deleted;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not scan the upload directory: {}", e.getMessage());
+            return deleted;
+        }
+        return deleted + deleteOrphans(batch, budget - deleted);
+    }
+
+    private int deleteOrphans(List<String> filenames, int budget) {
+        if (filenames.isEmpty() || budget <= 0) {
+            return 0;
+        }
+        Set<String> blobs = new HashSet<>(photoBlobRepository.findExisting(filenames));
+        List<String> urls = filenames.stream().map(filename -> PhotoStore.URL_PREFIX + filename).toList();
+        Set<String> referenced = new HashSet<>(photoBlobRepository.findReferencedUrls(urls));
+
+        int deleted = 0;
+        for (String filename : filenames) {
+            if (deleted >= budget) {
+                break;
+            }
+            if (!blobs.contains(filename) && !referenced.contains(PhotoStore.URL_PREFIX + filename)
+                    && photoStore.deleteOrphan(filename)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    // Returns false if the run should stop because the thread was interrupted
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.config.FileUploadConfig;
+import com.Lostify.Lostify.domain.ItemChangedEvent;
+import com.Lostify.Lostify.dto.PhotoPipelineStats;
+import com.Lostify.Lostify.model.Item;
+import com.Lostify.Lostify.model.PhotoVariant;
+import com.Lostify.Lostify.repository.ItemRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generates thumbnail and medium JPEG variants of item photos after the item is reported or
+ * imported, and records their URLs on the item. Runs on a small bounded executor, never on the
+ * request thread. Items the executor had no room for, or that predate variants, are picked up
+ * by a backfill that queues a limited number per run; items none of whose photos could be
+ * processed are marked and not retried.
+ * <p>
+ * Sources are decoded with subsampling, so a large upload is never held in memory at full
+ * resolution, and variants are re-encoded from pixels only, which drops EXIF and other metadata
+ * after its orientation has been applied.
+ */
+@Service
+public class PhotoVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantService.class);
+
+    private static final int THUMBNAIL_SIZE = 240;
+    private static final int MEDIUM_SIZE = 960;
+    private static final float JPEG_QUALITY = 0.8f;
+    // Sanity bound on declared dimensions; real photos are far below this
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+    private static final String URL_PREFIX = "/uploads/";
+    // Leaves items reported moments ago to the variants already queued for them
+    private static final Duration BACKFILL_MIN_AGE = Duration.ofMinutes(10);
+
+    // Variant files are named after their original, which lets PhotoStore remove them together
+    static final String THUMBNAIL_SUFFIX = "_thumb.jpg";
+    static final String MEDIUM_SUFFIX = "_medium.jpg";
+
+    private final ItemRepository itemRepository;
+    private final ItemChangeTracker itemChangeTracker;
+    private final FileUploadConfig fileUploadConfig;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+
+    private final boolean backfillEnabled;
+    private final int backfillBatchSize;
+    // Last item id the backfill queued; only the scheduler thread touches it
+    private long backfillCursor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public PhotoVariantService(ItemRepository itemRepository,
+                               ItemChangeTracker itemChangeTracker,
+                               FileUploadConfig fileUploadConfig,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${photo.variants.backfill.enabled:true}") boolean backfillEnabled,
+                               @Value("${photo.variants.backfill.batch-size:50}") int backfillBatchSize) {
+        this.itemRepository = itemRepository;
+        this.itemChangeTracker = itemChangeTracker;
+        this.fileUploadConfig = fileUploadConfig;
+        this.transactionTemplate = transactionTemplate;
+        this.backfillEnabled = backfillEnabled;
+        this.backfillBatchSize = backfillBatchSize;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(200),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "photo-variants-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Cards fall back to the original photo, so a skipped item only costs bandwidth
+                (runnable, pool) -> {
+                    rejected.increment();
+                    logger.warn("Photo variant queue is full, skipping item");
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues variant generation once a newly reported or imported item has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item item = event.item();
+        boolean imported = event.type() == ItemChangedEvent.Type.IMPORTED;
+        if ((event.type() != ItemChangedEvent.Type.CREATED && !imported)
+                || item.getPhotoUrls() == null || item.getPhotoUrls().isEmpty()) {
+            return;
+        }
+        // A large import would only overflow the queue; the backfill catches up on the rest
+        if (imported && executor.getQueue().remainingCapacity() == 0) {
+            return;
+        }
+        submit(item.getId(), List.copyOf(item.getPhotoUrls()));
+    }
+
+    @Scheduled(initialDelayString = "${photo.variants.backfill.initial-delay-ms:120000}",
+               fixedDelayString = "${photo.variants.backfill.interval-ms:60000}")
+    public void scheduledBackfill() {
+        if (backfillEnabled) {
+            backfill();
+        }
+    }
+
+    /**
+     * Queues up to one batch of items that have uploaded photos but no variants, continuing
+     * after the last item queued and starting over once the end is reached. Stops early when
+     * the executor is busy. Returns the number of items queued.
+     */
+    public int backfill() {
+        Instant modifiedBefore = Instant.now().minus(BACKFILL_MIN_AGE);
+        List<Long> ids = itemRepository.findIdsMissingPhotoVariants(backfillCursor, modifiedBefore,
+                PageRequest.of(0, backfillBatchSize));
+        int queued = 0;
+        for (Long id : ids) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                return queued;
+            }
+            List<String> photoUrls = itemRepository.findPhotoUrlsById(id);
+            if (!photoUrls.isEmpty()) {
+                submit(id, photoUrls);
+                queued++;
+            }
+            backfillCursor = id;
+        }
+        if (ids.size() < backfillBatchSize) {
+            backfillCursor = 0;
+        }
+        if (queued > 0) {
+            logger.info("Queued photo variants for {} items without them", queued);
+        }
+        return queued;
+    }
+
+    private void submit(Long itemId, List<String> photoUrls) {
+        executor.execute(() -> {
+            try {
+                process(itemId, photoUrls);
+            } catch (Exception e) {
+                failed.increment();
+                logger.error("Failed to create photo variants for item {}", itemId, e);
+            }
+        });
+    }
+
+    public PhotoPipelineStats stats() {
+        return new PhotoPipelineStats(executor.getQueue().size(), executor.getActiveCount(),
+                completed.sum(), failed.sum(), rejected.sum());
+    }
+
+    private void process(Long itemId, List<String> photoUrls) {
+        List<PhotoVariant> variants = new ArrayList<>();
+        for (String photoUrl : photoUrls) {
+            try {
+                variants.add(createVariants(photoUrl));
+            } catch (IOException e) {
+                failed.increment();
+                logger.warn("Could not create variants of {}: {}", photoUrl, e.getMessage());
+            }
+        }
+        if (variants.isEmpty()) {
+            // Missing or undecodable files do not get better by retrying
+            itemRepository.markPhotoVariantsFailed(itemId, Instant.now());
+            return;
+        }
+
+        for (int attempt = 1; attempt <= MAX_SAVE_ATTEMPTS; attempt++) {
+            try {
+                Long universityId = transactionTemplate.execute(status -> record(itemId, variants));
+                if (universityId != null) {
+                    itemChangeTracker.recordChange(universityId);
+                }
+                completed.increment();
+                return;
+            } catch (ObjectOptimisticLockingFailureException e) {
+                // The item changed while we were encoding; reload and apply again
+                logger.debug("Item {} changed while recording variants, attempt {}", itemId, attempt);
+            }
+        }
+        failed.increment();
+        logger.warn("Gave up recording photo variants for item {}", itemId);
+    }
+
+    // Returns the item's university, or null when the item no longer exists
+    private Long record(Long itemId, List<PhotoVariant> variants) {
+        Item item = itemRepository.findById(itemId).orElse(null);
+        if (item == null) {
+            return null;
+        }
+        item.getPhotoVariants().clear();
+        item.getPhotoVariants().addAll(variants);
+        item.setPhotoVariantsFailedAt(null);
+        item.setImageUrl(variants.get(0).getThumbnailUrl());
+        itemRepository.save(item);
+        return item.getUniversity().getId();
+    }
+
+    private PhotoVariant createVariants(String photoUrl) throws IOException {
+        Path original = resolve(photoUrl);
+        String filename = original.getFileName().toString();
+        int dot = filename.lastIndexOf('.');
+        String baseName = dot > 0 ? filename.substring(0, dot) : filename;
+
+        // Re-encoding drops EXIF, so the orientation it records is applied to the pixels instead
+        BufferedImage source = ExifOrientation.apply(decode(original, MEDIUM_SIZE), ExifOrientation.read(original));
+        String mediumName = baseName + MEDIUM_SUFFIX;
+        String thumbnailName = baseName + THUMBNAIL_SUFFIX;
+        BufferedImage medium = scale(source, MEDIUM_SIZE);
+        writeJpeg(medium, original.resolveSibling(mediumName));
+        // Scale the thumbnail from the medium copy; it is already close to the target size
+        writeJpeg(scale(medium, THUMBNAIL_SIZE), original.resolveSibling(thumbnailName));
+
+        return new PhotoVariant(photoUrl, URL_PREFIX + thumbnailName, URL_PREFIX + mediumName);
+    }
+
+    private Path resolve(String photoUrl) throws IOException {
+        if (photoUrl == null || !photoUrl.startsWith(URL_PREFIX)) {
+            throw new IOException("Not an uploaded file");
+        }
+        Path uploadDir = Paths.get(fileUploadConfig.getUploadDir()).toAbsolutePath().normalize();
+        Path file = uploadDir.resolve(photoUrl.substring(URL_PREFIX.length())).normalize();
+        if (!file.startsWith(uploadDir) || !Files.isRegularFile(file)) {
+            throw new IOException("File not found");
+        }
+        return file;
+    }
+
+    /**
+     * Decodes at most about twice the target size, using subsampling so that the full-resolution
+     * raster of a large photo is never allocated. Metadata is not read.
+     */
+    static BufferedImage decode(Path file, int targetSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Image is too large: " + width + "x" + height);
+                }
+                int subsampling = Math.max(1, Math.max(width, height) / (targetSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage image = reader.read(0, param);
+                if (image == null) {
+                    throw new IOException("Image could not be decoded");
+                }
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Fits the image into a square of {@code maxSize}, halving in steps for quality, never upscaling.
+     * The result is opaque RGB, with transparency flattened onto white.
+     */
+    static BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Writes a baseline JPEG without metadata, through a temporary file so readers never see a partial image.
+     */
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temporary = Files.createTempFile(target.getParent(), ".variant", ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temporary.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ConversationEvent;
+import com.Lostify.Lostify.repository.ConversationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory unread totals per user, so the unread badge never aggregates conversations.
+ * <p>
+ * A user's total is loaded with one aggregate query the first time it is asked for, then kept
+ * current from committed sends and reads. A delta that commits while the total is being
+ * loaded can be counted twice or not at all; the periodic reconciliation reloads every held
+ * total and repairs such drift, and drops totals nobody has asked for in a while.
+ */
+@Component
+public class UnreadCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounter.class);
+
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final ConversationRepository conversationRepository;
+    private final long idleMillis;
+    private final Map<Long, Total> totals = new ConcurrentHashMap<>();
+
+    private static final class Total {
+        volatile long value;
+        volatile long lastReadAt;
+
+        Total(long value) {
+            this.value = value;
+            this.lastReadAt = System.currentTimeMillis();
+        }
+    }
+
+    public UnreadCounter(ConversationRepository conversationRepository,
+                         @Value("${messaging.unread.idle-minutes:60}") long idleMinutes) {
+        this.conversationRepository = conversationRepository;
+        this.idleMillis = Duration.ofMinutes(idleMinutes).toMillis();
+    }
+
+    public long total(Long userId) {
+        Total total = totals.computeIfAbsent(userId, id -> new Total(conversationRepository.sumUnreadCount(id)));
+        total.lastReadAt = System.currentTimeMillis();
+        return Math.max(total.value, 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onConversationEvent(ConversationEvent event) {
+        if (event.unreadDelta() != 0) {
+            // Only totals someone has asked for are kept; the others are loaded when needed
+            totals.computeIfPresent(event.unreadUserId(), (id, total) -> {
+                total.value += event.unreadDelta();
+                return total;
+            });
+        }
+    }
+
+    /**
+     * Reloads every held total from the conversations table in batches.
+     */
+    @Scheduled(initialDelayString = "${messaging.unread.reconcile-interval-ms:300000}",
+               fixedDelayString = "${messaging.unread.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        long idleSince = System.currentTimeMillis() - idleMillis;
+        totals.entrySet().removeIf(entry -> entry.getValue().lastReadAt < idleSince);
+
+        List<Long> userIds = new ArrayList<>(totals.keySet());
+        AtomicInteger repaired = new AtomicInteger();
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+            Map<Long, Long> stored = new HashMap<>();
+            for (Object[] row : conversationRepository.sumUnreadCounts(batch)) {
+                stored.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+            for (Long userId : batch) {
+                long value = stored.getOrDefault(userId, 0L);
+                totals.computeIfPresent(userId, (id, total) -> {
+                    if (total.value != value) {
+                        total.value = value;
+                        repaired.incrementAndGet();
+                    }
+                    return total;
+                });
+            }
+        }
+        if (repaired.get() > 0) {
+            logger.info("Reconciled the unread totals of {} users", repaired.get());
+        }
+    }
+}
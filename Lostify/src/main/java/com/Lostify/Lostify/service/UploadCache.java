@@ -0,0 +1,62 @@
+package com.Lostify.Lostify.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the bytes of small, frequently served uploads (thumbnails mostly) in memory,
+ * bounded by total size and evicted least recently used first.
+ * <p>
+ * Uploaded files never change once written, so entries need no invalidation; a file that is
+ * deleted is dropped with {@link #remove}.
+ */
+@Service
+public class UploadCache {
+
+    private final long maxBytes;
+    private final int maxFileBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    public UploadCache(@Value("${uploads.cache.max-bytes:33554432}") long maxBytes,
+                       @Value("${uploads.cache.max-file-bytes:131072}") int maxFileBytes) {
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    /**
+     * Whether a file of this size is small enough to be cached.
+     */
+    public boolean accepts(long size) {
+        return size <= maxFileBytes && size <= maxBytes;
+    }
+
+    public synchronized byte[] get(String filename) {
+        return entries.get(filename);
+    }
+
+    public synchronized void put(String filename, byte[] content) {
+        if (!accepts(content.length)) {
+            return;
+        }
+        byte[] previous = entries.put(filename, content);
+        totalBytes += content.length - (previous == null ? 0 : previous.length);
+
+        Iterator<Map.Entry<String, byte[]>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized void remove(String filename) {
+        byte[] removed = entries.remove(filename);
+        if (removed != null) {
+            totalBytes -= removed.length;
+        }
+    }
+}
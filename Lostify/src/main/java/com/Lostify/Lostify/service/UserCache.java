@@ -0,0 +1,84 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.dto.UserDTO;
+import com.Lostify.Lostify.model.User;
+import com.Lostify.Lostify.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-through cache of user ids by username and of the public user details shown with
+ * messages, bounded by size with the least recently used out. Users are never renamed or
+ * deleted and their details have no update path, so entries need no invalidation.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final int maxEntries;
+
+    // Both access-ordered and guarded by this
+    private final LinkedHashMap<String, Long> ids = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<Long, UserDTO> users = new LinkedHashMap<>(64, 0.75f, true);
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${users.cache.max-entries:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the id of the user, or null if there is no such user.
+     */
+    public Long findIdByUsername(String username) {
+        synchronized (this) {
+            Long id = ids.get(username);
+            if (id != null) {
+                return id;
+            }
+        }
+        // Loaded outside the lock; a concurrent miss loads the same row
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        synchronized (this) {
+            ids.put(username, user.getId());
+            trim(ids);
+        }
+        return user.getId();
+    }
+
+    /**
+     * Returns the user's public details, or null if there is no such user.
+     */
+    public UserDTO findUser(Long id) {
+        synchronized (this) {
+            UserDTO user = users.get(id);
+            if (user != null) {
+                return user;
+            }
+        }
+        UserDTO user = userRepository.findById(id).map(UserDTO::from).orElse(null);
+        if (user == null) {
+            return null;
+        }
+        synchronized (this) {
+            users.put(id, user);
+            trim(users);
+        }
+        return user;
+    }
+
+    private void trim(LinkedHashMap<?, ?> entries) {
+        Iterator<? extends Map.Entry<?, ?>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.Lostify.Lostify.service;
+
+import com.Lostify.Lostify.domain.ItemStatus;
+import com.Lostify.Lostify.dto.ItemGeoPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares {@link ItemGeoIndex#nearest} with a brute-force haversine scan over the same points.
+ */
+class ItemGeoIndexTest {
+
+    private static final long UNIVERSITY_ID = 1L;
+    private static final long OTHER_UNIVERSITY_ID = 2L;
+    // Mirrors the grid of the index, so points can be placed on cell edges
+    private static final double CELL_DEGREES = 0.002;
+    private static final ItemStatus[] STATUSES = ItemStatus.values();
+
+    private final Random random = new Random(42);
+
+    @Test
+    void matchesBruteForceOnRandomPoints() {
+        assertMatchesBruteForce(48.8566, 2.3522, 0.02, false);
+    }
+
+    @Test
+    void matchesBruteForceOnCellBoundaries() {
+        assertMatchesBruteForce(-33.8688, 151.2093, 0.02, true);
+    }
+
+    @Test
+    void matchesBruteForceAtHighLatitude() {
+        // Cells are a few metres wide here, so a radius spans many rings of them
+        assertMatchesBruteForce(78.2232, 15.6267, 0.02, false);
+        assertMatchesBruteForce(-77.8463, 166.6682, 0.02, true);
+    }
+
+    @Test
+    void ignoresOtherUniversitiesAndNonPositiveArguments() {
+        ItemGeoIndex index = new ItemGeoIndex(null);
+        index.index(new ItemGeoPoint(1L, UNIVERSITY_ID, ItemStatus.LOST, 10.0, 10.0));
+        index.index(new ItemGeoPoint(2L, OTHER_UNIVERSITY_ID, ItemStatus.LOST, 10.0, 10.0));
+
+        assertThat(index.nearest(UNIVERSITY_ID, 10.0, 10.0, 100, null, 10))
+                .extracting(ItemGeoIndex.Hit::itemId)
+                .containsExactly(1L);
+        assertThat(index.nearest(UNIVERSITY_ID, 10.0, 10.0, 100, null, 0)).isEmpty();
+        assertThat(index.nearest(UNIVERSITY_ID, 10.0, 10.0, 0, null, 10)).isEmpty();
+        assertThat(index.nearest(3L, 10.0, 10.0, 100, null, 10)).isEmpty();
+    }
+
+    private void assertMatchesBruteForce(double centerLatitude, double centerLongitude, double spreadDegrees,
+                                         boolean onCellEdges) {
+        ItemGeoIndex index = new ItemGeoIndex(null);
+        List<ItemGeoPoint> points = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            double latitude = around(centerLatitude, spreadDegrees, onCellEdges);
+            double longitude = around(centerLongitude, spreadDegrees, onCellEdges);
+            long universityId = id % 10 == 0 ? OTHER_UNIVERSITY_ID : UNIVERSITY_ID;
+            ItemGeoPoint point = new ItemGeoPoint(id, universityId, STATUSES[random.nextInt(STATUSES.length)],
+                    latitude, longitude);
+            points.add(point);
+            index.index(point);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            double latitude = around(centerLatitude, spreadDegrees, onCellEdges);
+            double longitude = around(centerLongitude, spreadDegrees, onCellEdges);
+            double radius = 10 + random.nextDouble() * 3000;
+            int limit = 1 + random.nextInt(25);
+            ItemStatus status = random.nextBoolean() ? null : STATUSES[random.nextInt(STATUSES.length)];
+
+            List<ItemGeoIndex.Hit> expected = bruteForce(points, latitude, longitude, radius, status, limit);
+            List<ItemGeoIndex.Hit> actual = index.nearest(UNIVERSITY_ID, latitude, longitude, radius, status, limit);
+
+            assertThat(actual)
+                    .as("query %d at (%f, %f), radius %f, status %s, limit %d",
+                            query, latitude, longitude, radius, status, limit)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static List<ItemGeoIndex.Hit> bruteForce(List<ItemGeoPoint> points, double latitude, double longitude,
+                                                     double radius, ItemStatus status, int limit) {
+        return points.stream()
+                .filter(point -> point.universityId() == UNIVERSITY_ID)
+                .filter(point -> status == null || point.status() == status)
+                .map(point -> new ItemGeoIndex.Hit(point.id(),
+                        ItemGeoIndex.distanceMeters(latitude, longitude, point.latitude(), point.longitude())))
+                .filter(hit -> hit.distanceMeters() <= radius)
+                // Nearest first; ties keep the newer (higher) id, as the index does
+                .sorted(Comparator.comparingDouble(ItemGeoIndex.Hit::distanceMeters)
+                        .thenComparing(ItemGeoIndex.Hit::itemId, Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    // A coordinate within the spread of the center, optionally snapped to just either side of a cell edge
+    private double around(double center, double spreadDegrees, boolean onCellEdge) {
+        double value = center + (random.nextDouble() * 2 - 1) * spreadDegrees;
+        if (!onCellEdge) {
+            return value;
+        }
+        double edge = Math.round(value / CELL_DEGREES) * CELL_DEGREES;
+        return edge + (random.nextInt(3) - 1) * 1e-9;
+    }
+}
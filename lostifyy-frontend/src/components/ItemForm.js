@@ -1,7 +1,8 @@
-import React, { useState } from 'react';
+import React, { useState, useEffect } from 'react';
 import { FaBoxOpen, FaTag, FaAlignLeft, FaMapMarkerAlt, FaUniversity, FaCalendarAlt, FaInfoCircle, FaCheckCircle, FaCamera, FaPhone, FaEnvelope, FaTimes } from 'react-icons/fa';
 import styled, { keyframes } from 'styled-components';
 import useUniversities from '../hooks/useUniversities';
+import api from '../utils/api';
 
 // Animations
 const fadeIn = keyframes`
@@ -609,6 +610,26 @@ const ItemForm = ({
 
   const { universities, loading: universitiesLoading } = useUniversities();
   const availableUniversities = externalUniversities || universities;
+  const [locationSuggestions, setLocationSuggestions] = useState([]);
+
+  // Suggest locations already reported at the selected university while the user types
+  useEffect(() => {
+    if (!formData.universityId || !formData.location.trim()) {
+      setLocationSuggestions([]);
+      return undefined;
+    }
+    const timer = setTimeout(async () => {
+      try {
+        const response = await api.get('/api/items/locations', {
+          params: { universityId: formData.universityId, prefix: formData.location }
+        });
+        setLocationSuggestions(response.data || []);
+      } catch (err) {
+        setLocationSuggestions([]);
+      }
+    }, 200);
+    return () => clearTimeout(timer);
+  }, [formData.universityId, formData.location]);
 
   const handleChange = (e) => {
     const { name, value } = e.target;
@@ -796,9 +817,16 @@ const ItemForm = ({
                 value={formData.location}
                 onChange={handleChange}
                 placeholder="e.g., Main Library, Student Center, Building A Room 201..."
+                list="location-suggestions"
+                autoComplete="off"
                 required
                 $type={type}
               />
+              <datalist id="location-suggestions">
+                {locationSuggestions.map(location => (
+                  <option key={location} value={location} />
+                ))}
+              </datalist>
               <InputIcon type={type}>
                 <FaMapMarkerAlt />
               </InputIcon>
@@ -128,6 +128,22 @@ const MessageTime = styled.div`
   padding: 0 8px;
 `;
 
+const LoadOlderButton = styled.button`
+  align-self: center;
+  margin-bottom: 12px;
+  padding: 6px 14px;
+  border: 1px solid ${props => props.theme.border.default};
+  border-radius: 16px;
+  background: ${props => props.theme.surface.elevated};
+  color: ${props => props.theme.text.secondary};
+  font-size: 12px;
+  cursor: pointer;
+
+  &:hover {
+    color: ${props => props.theme.primary.main};
+  }
+`;
+
 const InputContainer = styled.div`
   padding: 12px 20px;
   border-top: 1px solid ${props => props.theme.border.default};
@@ -218,7 +234,7 @@ const useAutosizeTextArea = (textAreaRef, value) => {
 
 // --- The Component ---
 const ChatWindow = () => {
-  const { currentConversation, messages, sendMessage, loading } = useMessaging();
+  const { currentConversation, messages, hasOlderMessages, loadOlderMessages, sendMessage, loading } = useMessaging();
   const [messageText, setMessageText] = useState('');
   const [sending, setSending] = useState(false);
   const messagesEndRef = useRef(null);
@@ -230,9 +246,11 @@ const ChatWindow = () => {
     messagesEndRef.current?.scrollIntoView({ behavior: 'smooth' });
   };
 
+  // Follow new messages, but stay in place when older ones are prepended
+  const lastMessageId = messages.length > 0 ? messages[messages.length - 1].id : null;
   useEffect(() => {
     scrollToBottom();
-  }, [messages]);
+  }, [lastMessageId]);
 
   const handleSendMessage = async () => {
     if (!messageText.trim() || sending || !currentConversation) return;
@@ -323,7 +341,14 @@ const ChatWindow = () => {
             <p>Start the conversation about {currentConversation.item.name}</p>
           </EmptyState>
         ) : (
-          renderMessages()
+          <>
+            {hasOlderMessages && (
+              <LoadOlderButton type="button" onClick={loadOlderMessages}>
+                Load earlier messages
+              </LoadOlderButton>
+            )}
+            {renderMessages()}
+          </>
         )}
         <div ref={messagesEndRef} />
       </MessagesContainer>
@@ -128,6 +128,21 @@ const UnreadBadge = styled.div`
   text-align: center;
 `;
 
+const LoadMoreButton = styled.button`
+  display: block;
+  width: 100%;
+  padding: 12px;
+  border: none;
+  background: transparent;
+  color: ${props => props.theme.text.secondary};
+  font-size: 13px;
+  cursor: pointer;
+
+  &:hover {
+    color: ${props => props.theme.primary.main};
+  }
+`;
+
 const EmptyState = styled.div`
   padding: 32px;
   text-align: center;
@@ -135,7 +150,14 @@ const EmptyState = styled.div`
 `;
 
 const ConversationsList = () => {
-  const { conversations, currentConversation, selectConversation, loading } = useMessaging();
+  const {
+    conversations,
+    currentConversation,
+    selectConversation,
+    hasMoreConversations,
+    loadMoreConversations,
+    loading
+  } = useMessaging();
 
   if (loading && conversations.length === 0) {
     return (
@@ -206,6 +228,11 @@ const ConversationsList = () => {
           )}
         </ConversationItem>
       ))}
+      {hasMoreConversations && (
+        <LoadMoreButton type="button" onClick={loadMoreConversations}>
+          Load older conversations
+        </LoadMoreButton>
+      )}
     </ConversationsContainer>
   );
 };
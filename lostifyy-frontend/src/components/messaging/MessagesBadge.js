@@ -1,4 +1,4 @@
-import React from 'react';
+import React, { useEffect } from 'react';
 import styled from 'styled-components';
 import { useMessaging } from '../../context/MessagingContext';
 
@@ -20,13 +20,22 @@ const Badge = styled.div`
   z-index: 1;
 `;
 
+const POLL_INTERVAL = 60000;
+
 const Container = styled.div`
   position: relative;
   display: inline-block;
 `;
 
 const MessagesBadge = ({ children }) => {
-  const { unreadCount } = useMessaging();
+  const { unreadCount, refreshUnreadCount } = useMessaging();
+
+  // The stream keeps the count current; polling the cheap total covers a dropped stream
+  useEffect(() => {
+    refreshUnreadCount();
+    const timer = setInterval(refreshUnreadCount, POLL_INTERVAL);
+    return () => clearInterval(timer);
+  }, []);
 
   return (
     <Container>
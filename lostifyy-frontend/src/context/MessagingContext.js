@@ -1,6 +1,7 @@
-import React, { createContext, useContext, useState, useEffect } from 'react';
+import React, { createContext, useContext, useState, useEffect, useRef } from 'react';
 import { AuthContext } from './AuthContext';
 import api from '../utils/api';
+import { openMessageStream } from '../utils/messageStream';
 
 const MessagingContext = createContext();
 
@@ -18,17 +19,43 @@ export const MessagingProvider = ({ children }) => {
   const [currentConversation, setCurrentConversation] = useState(null);
   const [messages, setMessages] = useState([]);
   const [loading, setLoading] = useState(false);
+  const [olderCursor, setOlderCursor] = useState(null);
+  const [conversationsCursor, setConversationsCursor] = useState(null);
+  const currentConversationId = useRef(null);
+  const knownConversationIds = useRef(new Set());
+  const lastMessageId = useRef(null);
+
+  useEffect(() => {
+    currentConversationId.current = currentConversation?.id ?? null;
+  }, [currentConversation]);
+
+  useEffect(() => {
+    lastMessageId.current = messages.length > 0 ? messages[messages.length - 1].id : null;
+  }, [messages]);
+
+  useEffect(() => {
+    knownConversationIds.current = new Set(conversations.map(conv => conv.id));
+  }, [conversations]);
+
+  // Kept from the server's unread total and the stream, not summed from the conversation list
   const [unreadCount, setUnreadCount] = useState(0);
 
+  const refreshUnreadCount = async () => {
+    try {
+      const response = await api.get('/api/messages/unread-count');
+      setUnreadCount(response.data.unreadCount);
+    } catch (error) {
+      console.error('Error fetching unread count:', error);
+    }
+  };
+
   const fetchConversations = async () => {
     try {
       setLoading(true);
+      // Only the most recent page; older conversations are loaded on demand
       const response = await api.get('/api/messages/conversations');
       setConversations(response.data);
-      
-      // Calculate total unread count
-      const totalUnread = response.data.reduce((sum, conv) => sum + conv.unreadCount, 0);
-      setUnreadCount(totalUnread);
+      setConversationsCursor(response.headers['x-next-cursor'] || null);
     } catch (error) {
       console.error('Error fetching conversations:', error);
     } finally {
@@ -36,6 +63,23 @@ export const MessagingProvider = ({ children }) => {
     }
   };
 
+  const loadMoreConversations = async () => {
+    if (!conversationsCursor) return;
+    try {
+      const response = await api.get('/api/messages/conversations', {
+        params: { cursor: conversationsCursor }
+      });
+      // A conversation that moved up since the first page is already listed
+      setConversations(prev => [
+        ...prev,
+        ...response.data.filter(conv => !prev.some(known => known.id === conv.id))
+      ]);
+      setConversationsCursor(response.headers['x-next-cursor'] || null);
+    } catch (error) {
+      console.error('Error loading more conversations:', error);
+    }
+  };
+
   const startConversation = async (otherUserId, itemId) => {
     try {
       const response = await api.post('/api/messages/conversation', {
@@ -52,18 +96,15 @@ export const MessagingProvider = ({ children }) => {
 
   const sendMessage = async (content, itemId, receiverId) => {
     try {
-      const response = await api.post('/api/messages/send', {
-        content,
-        itemId,
-        receiverId
-      });
-      
-      // Add message to current messages
-      setMessages(prev => [...prev, response.data]);
-      
-      // Refresh conversations to update last message
-      fetchConversations();
+      // The open conversation is addressed directly; the item and receiver only resolve a new one
+      const conversationId = currentConversationId.current;
+      const response = conversationId
+        ? await api.post(`/api/messages/conversation/${conversationId}/send`, { content })
+        : await api.post('/api/messages/send', { content, itemId, receiverId });
       
+      // The stream delivers the same message; whichever arrives second is dropped
+      appendMessage(response.data);
+
       return response.data;
     } catch (error) {
       console.error('Error sending message:', error);
@@ -74,14 +115,16 @@ export const MessagingProvider = ({ children }) => {
   const fetchMessages = async (conversationId) => {
     try {
       setLoading(true);
+      // Only the newest page; older messages are loaded on demand
       const response = await api.get(`/api/messages/conversation/${conversationId}/messages`);
       setMessages(response.data);
+      setOlderCursor(response.headers['x-next-cursor'] || null);
       
-      // Mark messages as read
-      await api.post(`/api/messages/conversation/${conversationId}/read`);
-      
-      // Update conversations to reflect read status
-      fetchConversations();
+      // Mark what was shown as read; the stream then clears the conversation's unread count
+      if (response.data.length > 0) {
+        const upTo = response.data[response.data.length - 1].id;
+        await api.post(`/api/messages/conversation/${conversationId}/read`, null, { params: { upTo } });
+      }
     } catch (error) {
       console.error('Error fetching messages:', error);
     } finally {
@@ -89,23 +132,127 @@ export const MessagingProvider = ({ children }) => {
     }
   };
 
+  const loadOlderMessages = async () => {
+    const conversationId = currentConversationId.current;
+    if (!conversationId || !olderCursor) return;
+    try {
+      const response = await api.get(`/api/messages/conversation/${conversationId}/messages`, {
+        params: { before: olderCursor }
+      });
+      if (currentConversationId.current !== conversationId) return;
+      setMessages(prev => [...response.data, ...prev]);
+      setOlderCursor(response.headers['x-next-cursor'] || null);
+    } catch (error) {
+      console.error('Error loading older messages:', error);
+    }
+  };
+
+  // Fetches what arrived in the open conversation since its newest shown message
+  const catchUpMessages = async () => {
+    const conversationId = currentConversationId.current;
+    let after = lastMessageId.current;
+    if (!conversationId || after == null) return;
+    try {
+      while (after) {
+        const response = await api.get(`/api/messages/conversation/${conversationId}/messages`, {
+          params: { after }
+        });
+        if (currentConversationId.current !== conversationId) return;
+        response.data.forEach(appendMessage);
+        if (response.data.length > 0) {
+          const upTo = response.data[response.data.length - 1].id;
+          await api.post(`/api/messages/conversation/${conversationId}/read`, null, { params: { upTo } });
+        }
+        after = response.headers['x-next-cursor'] || null;
+      }
+    } catch (error) {
+      console.error('Error catching up on messages:', error);
+    }
+  };
+
   const selectConversation = (conversation) => {
     setCurrentConversation(conversation);
     fetchMessages(conversation.id);
   };
 
-  useEffect(() => {
-    if (user) {
+  const appendMessage = (message) => {
+    setMessages(prev => (prev.some(m => m.id === message.id) ? prev : [...prev, message]));
+  };
+
+  // Applies a new message pushed by the server to the open chat and the conversation list
+  const handleMessagePush = ({ conversationId, message, unreadDelta }) => {
+    const isOpen = currentConversationId.current === conversationId;
+    if (unreadDelta) {
+      setUnreadCount(count => count + unreadDelta);
+    }
+    if (isOpen) {
+      appendMessage(message);
+      if (unreadDelta > 0) {
+        api.post(`/api/messages/conversation/${conversationId}/read`, null, { params: { upTo: message.id } })
+          .catch(() => {});
+      }
+    }
+
+    if (!knownConversationIds.current.has(conversationId)) {
+      // A conversation started by someone else; load it with its item and participant
       fetchConversations();
+      return;
+    }
+    setConversations(prev => {
+      const existing = prev.find(conv => conv.id === conversationId);
+      if (!existing) {
+        return prev;
+      }
+      const updated = {
+        ...existing,
+        lastMessage: message.content,
+        lastMessageAt: message.sentAt,
+        unreadCount: isOpen ? 0 : existing.unreadCount + unreadDelta,
+      };
+      return [updated, ...prev.filter(conv => conv.id !== conversationId)];
+    });
+  };
+
+  const handleReadPush = ({ conversationId, unreadCount: remaining }) => {
+    setConversations(prev =>
+      prev.map(conv => (conv.id === conversationId ? { ...conv, unreadCount: remaining } : conv))
+    );
+    refreshUnreadCount();
+  };
+
+  useEffect(() => {
+    if (!user) {
+      return undefined;
     }
+    // Loading the conversations and the open chat on every (re)connect catches up on anything
+    // missed while disconnected
+    return openMessageStream({
+      onOpen: () => {
+        fetchConversations();
+        refreshUnreadCount();
+        catchUpMessages();
+      },
+      onEvent: (event, data) => {
+        if (event === 'message') {
+          handleMessagePush(data);
+        } else if (event === 'read') {
+          handleReadPush(data);
+        }
+      },
+    });
   }, [user]);
 
   const value = {
     conversations,
     currentConversation,
     messages,
+    hasOlderMessages: Boolean(olderCursor),
+    loadOlderMessages,
+    hasMoreConversations: Boolean(conversationsCursor),
+    loadMoreConversations,
     loading,
     unreadCount,
+    refreshUnreadCount,
     fetchConversations,
     startConversation,
     sendMessage,
@@ -702,7 +702,11 @@ const ItemDetail = () => {
 
   if (!item) return null;
 
-  const images = item.photoUrls && item.photoUrls.length > 0 ? item.photoUrls : [];
+  // Prefer the downscaled copies once the server has generated them
+  const mediumUrls = new Map((item.photoVariants || []).map(variant => [variant.originalUrl, variant.mediumUrl]));
+  const images = item.photoUrls && item.photoUrls.length > 0
+    ? item.photoUrls.map(url => mediumUrls.get(url) || url)
+    : [];
 
   return (
     <>
@@ -1,4 +1,4 @@
-import React, { useState, useEffect, useMemo, useCallback, useContext } from 'react';
+import React, { useState, useEffect, useMemo, useCallback, useContext, useRef } from 'react';
 import { useNavigate } from 'react-router-dom';
 import { 
   FaSearch, 
@@ -359,6 +359,24 @@ const StyledSelect = styled.select`
   }
 `;
 
+const LocationInput = styled.input`
+  padding: 0.875rem 1.5rem;
+  border-radius: 15px;
+  border: 2px solid transparent;
+  background: linear-gradient(white, white) padding-box,
+              linear-gradient(135deg, #e2e8f0 0%, #cbd5e1 100%) border-box;
+  font-size: 0.95rem;
+  font-weight: 500;
+  transition: all 0.3s cubic-bezier(0.4, 0, 0.2, 1);
+  box-shadow: 0 4px 15px rgba(0, 0, 0, 0.08);
+  
+  &:focus {
+    outline: none;
+    transform: translateY(-2px);
+    box-shadow: 0 8px 30px rgba(103, 126, 234, 0.2);
+  }
+`;
+
 const ItemsGrid = styled.div`
   display: grid;
   grid-template-columns: repeat(auto-fill, minmax(380px, 1fr));
@@ -773,37 +791,95 @@ const EmptyState = ({ onAddNew }) => (
 // --- Main Component ---
 const ItemsList = () => {
   const [items, setItems] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
   const [sortBy, setSortBy] = useState('newest');
+  const [locationInput, setLocationInput] = useState('');
+  const [location, setLocation] = useState('');
+  const [locationSuggestions, setLocationSuggestions] = useState([]);
+  const latestRequest = useRef(0);
   
   const navigate = useNavigate();
   const { selectedUniversityId } = useContext(UniversityContext);
   const { currentUniversity } = useUniversities(selectedUniversityId);
   const { user } = useContext(AuthContext);
   
+  // Sorting and the location filter are applied by the server, so the cursor pages stay in order
+  const listParams = useMemo(() => ({
+    universityId: selectedUniversityId,
+    sort: sortBy,
+    ...(location ? { location } : {})
+  }), [selectedUniversityId, sortBy, location]);
 
+  // Starts again from the first page whenever the university, sort or location changes
   const fetchItems = useCallback(async () => {
     if (!selectedUniversityId) {
       navigate('/universities');
       return;
     }
+    const request = ++latestRequest.current;
     try {
-      setLoading(true);
-      const response = await api.get(`/api/items?universityId=${selectedUniversityId}`);
+      setError(null);
+      const response = await api.get('/api/items', { params: listParams });
+      if (request !== latestRequest.current) return;
       setItems(response.data || []);
+      setNextCursor(response.headers['x-next-cursor'] || null);
     } catch (err) {
+      if (request !== latestRequest.current) return;
       setError('Failed to load items. Please try again.');
     } finally {
-      setLoading(false);
+      if (request === latestRequest.current) {
+        setLoading(false);
+      }
     }
-  }, [selectedUniversityId, navigate]);
+  }, [selectedUniversityId, listParams, navigate]);
+
+  const loadMoreItems = useCallback(async () => {
+    if (!nextCursor) return;
+    const request = latestRequest.current;
+    try {
+      setLoadingMore(true);
+      const response = await api.get('/api/items', {
+        params: { ...listParams, cursor: nextCursor }
+      });
+      if (request !== latestRequest.current) return;
+      setItems(prev => [...prev, ...(response.data || [])]);
+      setNextCursor(response.headers['x-next-cursor'] || null);
+    } catch (err) {
+      toast.error('Failed to load more items.');
+    } finally {
+      setLoadingMore(false);
+    }
+  }, [listParams, nextCursor]);
 
   useEffect(() => {
     fetchItems();
   }, [fetchItems]);
 
+  // Applies the typed location once the user pauses, and suggests locations already reported
+  useEffect(() => {
+    const typed = locationInput.trim();
+    const timer = setTimeout(async () => {
+      setLocation(typed);
+      if (!typed || !selectedUniversityId) {
+        setLocationSuggestions([]);
+        return;
+      }
+      try {
+        const response = await api.get('/api/items/locations', {
+          params: { universityId: selectedUniversityId, prefix: typed }
+        });
+        setLocationSuggestions(response.data || []);
+      } catch (err) {
+        setLocationSuggestions([]);
+      }
+    }, 300);
+    return () => clearTimeout(timer);
+  }, [locationInput, selectedUniversityId]);
+
   const handleDeleteItem = useCallback(async (e, itemId) => {
     e?.stopPropagation?.();
     const confirmed = window.confirm('Delete this item? This action cannot be undone.');
@@ -817,26 +893,15 @@ const ItemsList = () => {
     }
   }, []);
 
-  const filteredAndSortedItems = useMemo(() => {
-    return items
-      .filter(item => {
-        const searchLower = searchTerm.toLowerCase();
-        return (
-          item.name?.toLowerCase().includes(searchLower) ||
-          item.description?.toLowerCase().includes(searchLower) ||
-          item.category?.toLowerCase().includes(searchLower)
-        );
-      })
-      .sort((a, b) => {
-        if (sortBy === 'newest') {
-          return new Date(b.dateReported) - new Date(a.dateReported);
-        }
-        if (sortBy === 'oldest') {
-          return new Date(a.dateReported) - new Date(b.dateReported);
-        }
-        return 0;
-      });
-  }, [items, searchTerm, sortBy]);
+  // Only narrows the loaded pages; the order is the server's
+  const filteredItems = useMemo(() => {
+    const searchLower = searchTerm.toLowerCase();
+    return items.filter(item => (
+      item.name?.toLowerCase().includes(searchLower) ||
+      item.description?.toLowerCase().includes(searchLower) ||
+      item.category?.toLowerCase().includes(searchLower)
+    ));
+  }, [items, searchTerm]);
 
   if (loading) return <LoadingState />;
   if (error) return <ErrorState message={error} onRetry={fetchItems} />;
@@ -874,6 +939,19 @@ const ItemsList = () => {
               <option value="oldest">Oldest First</option>
             </StyledSelect>
             
+            <LocationInput
+              type="text"
+              placeholder="Location"
+              list="item-location-suggestions"
+              value={locationInput}
+              onChange={e => setLocationInput(e.target.value)}
+            />
+            <datalist id="item-location-suggestions">
+              {locationSuggestions.map(suggestion => (
+                <option key={suggestion} value={suggestion} />
+              ))}
+            </datalist>
+            
             <ActionButton $primary onClick={() => navigate('/items/lost')}>
               <FaPlus /> Report Item
             </ActionButton>
@@ -885,7 +963,7 @@ const ItemsList = () => {
         <EmptyState onAddNew={() => navigate('/items/lost')} />
       ) : (
         <ItemsGrid>
-          {filteredAndSortedItems.map((item, index) => (
+          {filteredItems.map((item, index) => (
             <ItemCard 
               key={item.id} 
               $status={item.status}
@@ -978,6 +1056,14 @@ const ItemsList = () => {
           ))}
         </ItemsGrid>
       )}
+
+      {nextCursor && (
+        <div style={{ display: 'flex', justifyContent: 'center', marginTop: '2rem' }}>
+          <ActionButton onClick={loadMoreItems} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </ActionButton>
+        </div>
+      )}
     </Container>
   );
 };
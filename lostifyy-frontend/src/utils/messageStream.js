@@ -0,0 +1,94 @@
+import api from './api';
+
+const MAX_RETRY_DELAY = 30000;
+
+// Parses one Server-Sent Events block into { event, data }
+const parseEvent = (block) => {
+  let event = 'message';
+  const data = [];
+  block.split('\n').forEach((line) => {
+    if (line.startsWith('event:')) {
+      event = line.slice(6).trim();
+    } else if (line.startsWith('data:')) {
+      data.push(line.slice(5).replace(/^ /, ''));
+    }
+  });
+  return data.length ? { event, data: data.join('\n') } : null;
+};
+
+/**
+ * Opens the messaging event stream. EventSource cannot send the Authorization header,
+ * so the stream is read with fetch. Reconnects with backoff until closed, and calls
+ * onOpen on every (re)connect so the caller can catch up on what it missed.
+ * Returns a function that closes the stream.
+ */
+export const openMessageStream = ({ onOpen, onEvent }) => {
+  let controller = null;
+  let closed = false;
+  let retryDelay = 1000;
+  let retryTimer = null;
+
+  const scheduleReconnect = () => {
+    if (closed) return;
+    retryTimer = setTimeout(connect, retryDelay);
+    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+  };
+
+  const connect = async () => {
+    const token = localStorage.getItem('token');
+    if (closed || !token) return;
+    controller = new AbortController();
+    try {
+      const response = await fetch(`${api.defaults.baseURL}/api/messages/stream`, {
+        headers: {
+          Accept: 'text/event-stream',
+          Authorization: `Bearer ${token}`,
+        },
+        credentials: 'include',
+        signal: controller.signal,
+      });
+      if (response.status === 401 || response.status === 403) {
+        // The token is no longer valid; the next API call sends the user to login
+        return;
+      }
+      if (!response.ok || !response.body) {
+        throw new Error(`Message stream failed with status ${response.status}`);
+      }
+
+      retryDelay = 1000;
+      onOpen?.();
+      const reader = response.body.getReader();
+      const decoder = new TextDecoder();
+      let buffer = '';
+      for (;;) {
+        const { value, done } = await reader.read();
+        if (done) break;
+        buffer += decoder.decode(value, { stream: true }).replace(/\r\n?/g, '\n');
+        let boundary;
+        while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+          const parsed = parseEvent(buffer.slice(0, boundary));
+          buffer = buffer.slice(boundary + 2);
+          if (parsed && parsed.event !== 'ready') {
+            try {
+              onEvent(parsed.event, JSON.parse(parsed.data));
+            } catch (error) {
+              console.error('Error handling message stream event:', error);
+            }
+          }
+        }
+      }
+    } catch (error) {
+      if (closed) return;
+      console.error('Message stream error:', error.message);
+    }
+    scheduleReconnect();
+  };
+
+  connect();
+
+  return () => {
+    closed = true;
+    clearTimeout(retryTimer);
+    controller?.abort();
+  };
+};